@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.benchmark;
+
+import loghub.Facade;
+import loghub.Input;
+import loghub.Level;
+import loghub.LevelTable;
+import loghub.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacadeBenchmark {
+    private static final String LOGGER = "loghub.benchmark.FacadeBenchmark";
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private Level level;
+
+    @Setup
+    public void setup() {
+        LevelTable.setLevel(LOGGER, Level.INFO);
+        level = enabled ? Level.INFO : Level.DEBUG;
+    }
+
+    @Benchmark
+    public void log0() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log0", null, "FacadeBenchmark.java", 1,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message");
+    }
+
+    @Benchmark
+    public void log1() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log1", null, "FacadeBenchmark.java", 2,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message {}", "p1");
+    }
+
+    @Benchmark
+    public void log2() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log2", null, "FacadeBenchmark.java", 3,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message {} {}", "p1", "p2");
+    }
+
+    @Benchmark
+    public void log3() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log3", null, "FacadeBenchmark.java", 4,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message {} {} {}", "p1", "p2", "p3");
+    }
+
+    @Benchmark
+    public void log4() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log4", null, "FacadeBenchmark.java", 5,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message {} {} {} {}", "p1", "p2", "p3", "p4");
+    }
+
+    @Benchmark
+    public void log5() {
+        Facade.log(System.currentTimeMillis(), Input.FACADE,
+                "loghub.benchmark.FacadeBenchmark", "log5", null, "FacadeBenchmark.java", 6,
+                level, LOGGER, Type.DEFAULT, null, null, null,
+                "Message {} {} {} {} {}", "p1", "p2", "p3", "p4", "p5");
+    }
+}
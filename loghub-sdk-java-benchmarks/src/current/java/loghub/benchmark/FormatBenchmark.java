@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.benchmark;
+
+import loghub.Param;
+import loghub.io.ArrayInputStream;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatInputStream;
+import loghub.io.FormatOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+    private static final String STRING = "Connection to database is established";
+    private static final String FORMAT = "Request {} is processed in {} ms";
+
+    private ArrayOutputStream array;
+    private FormatOutputStream output;
+    private byte[] longs;
+    private byte[] strings;
+    private int kinds;
+
+    @Setup
+    public void setup() throws IOException {
+        array = new ArrayOutputStream(4096, Integer.MAX_VALUE);
+        output = new FormatOutputStream(array);
+        kinds = Param.kinds(Param.LONG, Param.DOUBLE);
+
+        ArrayOutputStream a = new ArrayOutputStream(64, Integer.MAX_VALUE);
+        try (FormatOutputStream o = new FormatOutputStream(a)) {
+            o.writeLong(1234567890123L);
+        }
+        longs = a.createArraySizedCopy();
+
+        a = new ArrayOutputStream(256, Integer.MAX_VALUE);
+        try (FormatOutputStream o = new FormatOutputStream(a)) {
+            o.writeString(STRING);
+        }
+        strings = a.createArraySizedCopy();
+    }
+
+    @Benchmark
+    public int writeInt() throws IOException {
+        array.reset();
+        output.writeInt(123456789);
+        return array.getSize();
+    }
+
+    @Benchmark
+    public int writeLong() throws IOException {
+        array.reset();
+        output.writeLong(1234567890123L);
+        return array.getSize();
+    }
+
+    @Benchmark
+    public int writeDouble() throws IOException {
+        array.reset();
+        output.writeDouble(1234.5678);
+        return array.getSize();
+    }
+
+    @Benchmark
+    public int writeString() throws IOException {
+        array.reset();
+        output.writeString(STRING);
+        return array.getSize();
+    }
+
+    @Benchmark
+    public int writeStringParams() throws IOException {
+        array.reset();
+        output.writeString(FORMAT, "42", "17");
+        return array.getSize();
+    }
+
+    @Benchmark
+    public int writeStringPrimitiveParams() throws IOException {
+        array.reset();
+        output.writeString(FORMAT, kinds, null, Param.value(42L), null, Param.value(17.5));
+        return array.getSize();
+    }
+
+    @Benchmark
+    public long readLong() throws IOException {
+        return new FormatInputStream(new ArrayInputStream(longs)).readLong();
+    }
+
+    @Benchmark
+    public String readString() throws IOException {
+        return new FormatInputStream(new ArrayInputStream(strings)).readString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.benchmark;
+
+import loghub.buffer.ArrayByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayByteBufferBenchmark {
+    private static final int LENGTH = 64 * 1024 * 1024;
+
+    private ArrayByteBuffer buffer;
+    private byte[] record;
+
+    @Setup
+    public void setup() {
+        buffer = new ArrayByteBuffer(LENGTH);
+        record = new byte[128];
+    }
+
+    private boolean append() {
+        ArrayByteBuffer b = buffer;
+        if (b.append(record, 0, record.length)) {
+            return true;
+        } else {
+            synchronized (this) {
+                if (!b.isReady()) {
+                    b.reset();
+                }
+            }
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean append1() {
+        return append();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean append4() {
+        return append();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean append16() {
+        return append();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean append64() {
+        return append();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.benchmark;
+
+import loghub.Input;
+import loghub.InputEventFilter;
+import loghub.Level;
+import loghub.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputEventFilterBenchmark {
+    @Param({"",
+            "level <= INFO",
+            "logger == com.acme.db.* || logger == com.acme.web.*",
+            "level <= WARN && logger ^= com.acme && message ~= 'time(d)?out'"})
+    public String expression;
+
+    private InputEventFilter filter;
+
+    @Setup
+    public void setup() {
+        filter = InputEventFilter.parse(expression);
+    }
+
+    @Benchmark
+    public boolean match() {
+        return filter.match(System.currentTimeMillis(), Input.FACADE,
+                "com.acme.db.Pool", "acquire", null, "Pool.java", 42,
+                Level.INFO, "com.acme.db.Pool", Type.DEFAULT, null, null, null,
+                "Connection is acquired");
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.benchmark;
+
+import loghub.usage.CPUUsage;
+import loghub.usage.DiskUsage;
+import loghub.usage.MemoryUsage;
+import loghub.usage.NetworkUsage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsageBenchmark {
+    @Benchmark
+    public CPUUsage cpu() {
+        return new CPUUsage();
+    }
+
+    @Benchmark
+    public MemoryUsage memory() {
+        return new MemoryUsage();
+    }
+
+    @Benchmark
+    public DiskUsage disk() {
+        return new DiskUsage();
+    }
+
+    @Benchmark
+    public NetworkUsage network() {
+        return new NetworkUsage();
+    }
+}
@@ -26,7 +26,10 @@ import java.util.Map;
  */
 public enum Buffer {
     MEMORY((byte) 1),
-    DISK((byte) 2);
+    DISK((byte) 2),
+    DIRECT((byte) 3),
+    TIERED((byte) 4),
+    SEGMENTED((byte) 5);
 
     private static final Map<Byte, Buffer> buffers = createBuffers();
 
@@ -37,13 +40,24 @@ public enum Buffer {
     }
 
     private static Map<Byte, Buffer> createBuffers() {
-        Map<Byte, Buffer> os = new HashMap<>(2);
+        Map<Byte, Buffer> os = new HashMap<>(5);
         os.put(MEMORY.id, MEMORY);
         os.put(DISK.id, DISK);
+        os.put(DIRECT.id, DIRECT);
+        os.put(TIERED.id, TIERED);
+        os.put(SEGMENTED.id, SEGMENTED);
         return os;
     }
 
     public static Buffer get(byte id) {
         return buffers.get(id);
     }
+
+    public static Buffer parse(String value) {
+        if (value != null) {
+            return Buffer.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Codec {
+    NONE((byte) 1),
+    LZ4((byte) 2),
+    DEFLATE((byte) 3);
+
+    private static final Map<Byte, Codec> codecs = createCodecs();
+
+    public final byte id;
+
+    Codec(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Codec> createCodecs() {
+        Map<Byte, Codec> cs = new HashMap<>(3);
+        cs.put(NONE.id, NONE);
+        cs.put(LZ4.id, LZ4);
+        cs.put(DEFLATE.id, DEFLATE);
+        return cs;
+    }
+
+    public static Codec get(byte id) {
+        return codecs.get(id);
+    }
+
+    public static Codec parse(String value) {
+        if (value != null) {
+            return Codec.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
+}
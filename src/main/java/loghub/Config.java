@@ -20,6 +20,8 @@ package loghub;
 import loghub.config.Property;
 import loghub.config.Validator;
 
+import java.util.Map;
+
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
@@ -46,8 +48,29 @@ public final class Config {
     public static final String LOGHUB_MAINTAINER_NAME = Property.get("LOGHUB_MAINTAINER_NAME", "LOGHUB_MAINTAINER_NAME", "/META-INF/loghub/LOGHUB_MAINTAINER_NAME", Defaults.LOGHUB_MAINTAINER_NAME);
     public static final String LOGHUB_MAINTAINER_EMAIL = Property.get("LOGHUB_MAINTAINER_EMAIL", "LOGHUB_MAINTAINER_EMAIL", "/META-INF/loghub/LOGHUB_MAINTAINER_EMAIL", Defaults.LOGHUB_MAINTAINER_EMAIL);
     public static final String LOGHUB_INSTANCE = Validator.instanceNullable("LOGHUB_INSTANCE", Property.get("LOGHUB_INSTANCE", "LOGHUB_INSTANCE", "/META-INF/loghub/LOGHUB_INSTANCE", Defaults.LOGHUB_INSTANCE));
+    public static final Level LOGHUB_LEVEL = Validator.notNull("LOGHUB_LEVEL", Level.parse(Property.get("LOGHUB_LEVEL", "LOGHUB_LEVEL", "/META-INF/loghub/LOGHUB_LEVEL", Defaults.LOGHUB_LEVEL)));
+    public static final Map<String, String> LOGHUB_LEVELS = Property.getMap("LOGHUB_LEVELS", "LOGHUB_LEVELS", "/META-INF/loghub/LOGHUB_LEVELS", Defaults.LOGHUB_LEVELS);
     public static final InputEventFilter LOGHUB_EVENT_INCLUDE = InputEventFilter.parse(Property.get("LOGHUB_EVENT_INCLUDE", "LOGHUB_EVENT_INCLUDE", "/META-INF/loghub/LOGHUB_EVENT_INCLUDE", Defaults.LOGHUB_EVENT_INCLUDE));
     public static final InputEventFilter LOGHUB_EVENT_EXCLUDE = InputEventFilter.parse(Property.get("LOGHUB_EVENT_EXCLUDE", "LOGHUB_EVENT_EXCLUDE", "/META-INF/loghub/LOGHUB_EVENT_EXCLUDE", Defaults.LOGHUB_EVENT_EXCLUDE));
+    public static final int LOGHUB_EVENT_RATE = Validator.inRangeInt("LOGHUB_EVENT_RATE", Integer.parseInt(Property.get("LOGHUB_EVENT_RATE", "LOGHUB_EVENT_RATE", "/META-INF/loghub/LOGHUB_EVENT_RATE", Defaults.LOGHUB_EVENT_RATE).trim()), 0, 1000000000);
+    public static final int LOGHUB_EVENT_BURST = Validator.inRangeInt("LOGHUB_EVENT_BURST", Integer.parseInt(Property.get("LOGHUB_EVENT_BURST", "LOGHUB_EVENT_BURST", "/META-INF/loghub/LOGHUB_EVENT_BURST", Defaults.LOGHUB_EVENT_BURST).trim()), 1, Integer.MAX_VALUE);
+    public static final double LOGHUB_EVENT_SAMPLE = Validator.inRangeDouble("LOGHUB_EVENT_SAMPLE", Double.parseDouble(Property.get("LOGHUB_EVENT_SAMPLE", "LOGHUB_EVENT_SAMPLE", "/META-INF/loghub/LOGHUB_EVENT_SAMPLE", Defaults.LOGHUB_EVENT_SAMPLE).trim()), 0.0, 1.0);
+    public static final int LOGHUB_NUMBER_BLOCK = Validator.inRangeInt("LOGHUB_NUMBER_BLOCK", Integer.parseInt(Property.get("LOGHUB_NUMBER_BLOCK", "LOGHUB_NUMBER_BLOCK", "/META-INF/loghub/LOGHUB_NUMBER_BLOCK", Defaults.LOGHUB_NUMBER_BLOCK).trim()), 1, 1 << 20);
+    public static final Dispatch LOGHUB_DISPATCH = Validator.notNull("LOGHUB_DISPATCH", Dispatch.parse(Property.get("LOGHUB_DISPATCH", "LOGHUB_DISPATCH", "/META-INF/loghub/LOGHUB_DISPATCH", Defaults.LOGHUB_DISPATCH)));
+    public static final Wait LOGHUB_DISPATCH_WAIT = Validator.notNull("LOGHUB_DISPATCH_WAIT", Wait.parse(Property.get("LOGHUB_DISPATCH_WAIT", "LOGHUB_DISPATCH_WAIT", "/META-INF/loghub/LOGHUB_DISPATCH_WAIT", Defaults.LOGHUB_DISPATCH_WAIT)));
+    public static final int LOGHUB_DISPATCH_THREADS = Validator.inRangeInt("LOGHUB_DISPATCH_THREADS", Integer.parseInt(Property.get("LOGHUB_DISPATCH_THREADS", "LOGHUB_DISPATCH_THREADS", "/META-INF/loghub/LOGHUB_DISPATCH_THREADS", Defaults.LOGHUB_DISPATCH_THREADS).trim()), 1, 64);
+    public static final int LOGHUB_DISPATCH_CAPACITY = Validator.inRangeInt("LOGHUB_DISPATCH_CAPACITY", Integer.parseInt(Property.get("LOGHUB_DISPATCH_CAPACITY", "LOGHUB_DISPATCH_CAPACITY", "/META-INF/loghub/LOGHUB_DISPATCH_CAPACITY", Defaults.LOGHUB_DISPATCH_CAPACITY).trim()), 1, 1 << 30);
+    public static final int LOGHUB_DISPATCH_BATCH = Validator.inRangeInt("LOGHUB_DISPATCH_BATCH", Integer.parseInt(Property.get("LOGHUB_DISPATCH_BATCH", "LOGHUB_DISPATCH_BATCH", "/META-INF/loghub/LOGHUB_DISPATCH_BATCH", Defaults.LOGHUB_DISPATCH_BATCH).trim()), 1, 1 << 20);
+    public static final Buffer LOGHUB_BUFFER = Validator.notNull("LOGHUB_BUFFER", Buffer.parse(Property.get("LOGHUB_BUFFER", "LOGHUB_BUFFER", "/META-INF/loghub/LOGHUB_BUFFER", Defaults.LOGHUB_BUFFER)));
+    public static final String LOGHUB_BUFFER_FILE = Property.get("LOGHUB_BUFFER_FILE", "LOGHUB_BUFFER_FILE", "/META-INF/loghub/LOGHUB_BUFFER_FILE", Defaults.LOGHUB_BUFFER_FILE);
+    public static final long LOGHUB_BUFFER_LENGTH = Validator.inRangeLong("LOGHUB_BUFFER_LENGTH", Long.parseLong(Property.get("LOGHUB_BUFFER_LENGTH", "LOGHUB_BUFFER_LENGTH", "/META-INF/loghub/LOGHUB_BUFFER_LENGTH", Defaults.LOGHUB_BUFFER_LENGTH).trim()), 0L, Long.MAX_VALUE);
+    public static final Codec LOGHUB_BUFFER_CODEC = Validator.notNull("LOGHUB_BUFFER_CODEC", Codec.parse(Property.get("LOGHUB_BUFFER_CODEC", "LOGHUB_BUFFER_CODEC", "/META-INF/loghub/LOGHUB_BUFFER_CODEC", Defaults.LOGHUB_BUFFER_CODEC)));
+    public static final Overflow LOGHUB_BUFFER_OVERFLOW = Validator.notNull("LOGHUB_BUFFER_OVERFLOW", Overflow.parse(Property.get("LOGHUB_BUFFER_OVERFLOW", "LOGHUB_BUFFER_OVERFLOW", "/META-INF/loghub/LOGHUB_BUFFER_OVERFLOW", Defaults.LOGHUB_BUFFER_OVERFLOW)));
+    public static final long LOGHUB_BUFFER_OVERFLOW_TIMEOUT = Validator.inRangeLong("LOGHUB_BUFFER_OVERFLOW_TIMEOUT", Long.parseLong(Property.get("LOGHUB_BUFFER_OVERFLOW_TIMEOUT", "LOGHUB_BUFFER_OVERFLOW_TIMEOUT", "/META-INF/loghub/LOGHUB_BUFFER_OVERFLOW_TIMEOUT", Defaults.LOGHUB_BUFFER_OVERFLOW_TIMEOUT).trim()), 0L, 3600000L);
+    public static final Durability LOGHUB_BUFFER_DURABILITY = Validator.notNull("LOGHUB_BUFFER_DURABILITY", Durability.parse(Property.get("LOGHUB_BUFFER_DURABILITY", "LOGHUB_BUFFER_DURABILITY", "/META-INF/loghub/LOGHUB_BUFFER_DURABILITY", Defaults.LOGHUB_BUFFER_DURABILITY)));
+    public static final long LOGHUB_BUFFER_DURABILITY_INTERVAL = Validator.inRangeLong("LOGHUB_BUFFER_DURABILITY_INTERVAL", Long.parseLong(Property.get("LOGHUB_BUFFER_DURABILITY_INTERVAL", "LOGHUB_BUFFER_DURABILITY_INTERVAL", "/META-INF/loghub/LOGHUB_BUFFER_DURABILITY_INTERVAL", Defaults.LOGHUB_BUFFER_DURABILITY_INTERVAL).trim()), 1L, 3600000L);
+    public static final int LOGHUB_BUFFER_POOL = Validator.inRangeInt("LOGHUB_BUFFER_POOL", Integer.parseInt(Property.get("LOGHUB_BUFFER_POOL", "LOGHUB_BUFFER_POOL", "/META-INF/loghub/LOGHUB_BUFFER_POOL", Defaults.LOGHUB_BUFFER_POOL).trim()), 0, 1 << 20);
+    public static final int LOGHUB_BUFFER_BLOCK = Validator.inRangeInt("LOGHUB_BUFFER_BLOCK", Integer.parseInt(Property.get("LOGHUB_BUFFER_BLOCK", "LOGHUB_BUFFER_BLOCK", "/META-INF/loghub/LOGHUB_BUFFER_BLOCK", Defaults.LOGHUB_BUFFER_BLOCK).trim()), 0, 1 << 20);
 
     private Config() {
     }
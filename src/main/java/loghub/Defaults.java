@@ -18,6 +18,7 @@
 package loghub;
 
 import java.net.InetAddress;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -46,8 +47,29 @@ public final class Defaults {
     public static String LOGHUB_MAINTAINER_NAME = null;
     public static String LOGHUB_MAINTAINER_EMAIL = null;
     public static String LOGHUB_INSTANCE = createInstance();
+    public static String LOGHUB_LEVEL = "ALL";
+    public static Map<String, String> LOGHUB_LEVELS = null;
     public static String LOGHUB_EVENT_INCLUDE = null;
     public static String LOGHUB_EVENT_EXCLUDE = null;
+    public static String LOGHUB_EVENT_RATE = "0";
+    public static String LOGHUB_EVENT_BURST = "100";
+    public static String LOGHUB_EVENT_SAMPLE = "1.0";
+    public static String LOGHUB_NUMBER_BLOCK = "1024";
+    public static String LOGHUB_DISPATCH = "SYNC";
+    public static String LOGHUB_DISPATCH_WAIT = "PARK";
+    public static String LOGHUB_DISPATCH_THREADS = "1";
+    public static String LOGHUB_DISPATCH_CAPACITY = "65536";
+    public static String LOGHUB_DISPATCH_BATCH = "256";
+    public static String LOGHUB_BUFFER = "MEMORY";
+    public static String LOGHUB_BUFFER_FILE = null;
+    public static String LOGHUB_BUFFER_LENGTH = "67108864";
+    public static String LOGHUB_BUFFER_CODEC = "NONE";
+    public static String LOGHUB_BUFFER_OVERFLOW = "DROP_NEWEST";
+    public static String LOGHUB_BUFFER_OVERFLOW_TIMEOUT = "10";
+    public static String LOGHUB_BUFFER_DURABILITY = "NONE";
+    public static String LOGHUB_BUFFER_DURABILITY_INTERVAL = "10";
+    public static String LOGHUB_BUFFER_POOL = "16";
+    public static String LOGHUB_BUFFER_BLOCK = "0";
 
     private Defaults() {
     }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Dispatch {
+    SYNC((byte) 1),
+    ASYNC((byte) 2);
+
+    private static final Map<Byte, Dispatch> dispatches = createDispatches();
+
+    public final byte id;
+
+    Dispatch(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Dispatch> createDispatches() {
+        Map<Byte, Dispatch> ds = new HashMap<>(2);
+        ds.put(SYNC.id, SYNC);
+        ds.put(ASYNC.id, ASYNC);
+        return ds;
+    }
+
+    public static Dispatch get(byte id) {
+        return dispatches.get(id);
+    }
+
+    public static Dispatch parse(String value) {
+        if (value != null) {
+            return Dispatch.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Durability {
+    NONE((byte) 1),
+    PERIODIC((byte) 2),
+    GROUP((byte) 3);
+
+    private static final Map<Byte, Durability> durabilities = createDurabilities();
+
+    public final byte id;
+
+    Durability(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Durability> createDurabilities() {
+        Map<Byte, Durability> ds = new HashMap<>(3);
+        ds.put(NONE.id, NONE);
+        ds.put(PERIODIC.id, PERIODIC);
+        ds.put(GROUP.id, GROUP);
+        return ds;
+    }
+
+    public static Durability get(byte id) {
+        return durabilities.get(id);
+    }
+
+    public static Durability parse(String value) {
+        if (value != null) {
+            return Durability.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
+}
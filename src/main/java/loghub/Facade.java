@@ -17,24 +17,35 @@
 
 package loghub;
 
+import loghub.concurrent.EventRing;
+import loghub.concurrent.EventSlot;
+import loghub.concurrent.NumberBlock;
+import loghub.concurrent.NumberSequence;
+import loghub.concurrent.ThreadKeeper;
+import loghub.concurrent.ThreadManager;
 import loghub.config.Validator;
 import loghub.connector.Connector;
 import loghub.connector.ConnectorFactory;
+import loghub.connector.EventBatch;
 
 import java.util.ArrayList;
 import java.util.ServiceLoader;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class Facade {
-    private static final AtomicLong eventNumber = new AtomicLong(0L);
+    private static final NumberSequence eventNumber = new NumberSequence(Config.LOGHUB_NUMBER_BLOCK, Facade::reserve);
     private static final InputEventFilter eventInclude = Config.LOGHUB_EVENT_INCLUDE;
     private static final InputEventFilter eventExclude = Config.LOGHUB_EVENT_EXCLUDE;
-    private static final ThreadLocal<ThreadInfo> threadInfo = ThreadLocal.withInitial(() -> new ThreadInfo());
+    private static final InputEventLimiter eventLimiter = InputEventLimiter.create(Config.LOGHUB_EVENT_RATE, Config.LOGHUB_EVENT_BURST, Config.LOGHUB_EVENT_SAMPLE);
+    private static final Wait dispatchWait = Config.LOGHUB_DISPATCH_WAIT;
+    private static final AtomicInteger ringIndex = new AtomicInteger(0);
+    private static final ThreadLocal<ThreadInfo> threadInfo = ThreadLocal.withInitial(() -> new ThreadInfo(nextRing()));
     private static final Connector[] connectors = createConnectors();
+    private static final EventRing[] rings = createRings();
 
     private Facade() {
     }
@@ -56,14 +67,174 @@ public final class Facade {
         return cs.toArray(new Connector[0]);
     }
 
+    private static EventRing[] createRings() {
+        if (Config.LOGHUB_DISPATCH == Dispatch.ASYNC) {
+            EventRing[] rs = new EventRing[Config.LOGHUB_DISPATCH_THREADS];
+            for (int i = 0, ci = rs.length; i < ci; ++i) {
+                EventRing r = new EventRing(Config.LOGHUB_DISPATCH_CAPACITY);
+                ThreadKeeper k = new ThreadKeeper();
+                Thread t = new Thread(String.format("loghub-dispatch-thread-%d", i)) {
+                    @Override
+                    public void run() {
+                        Facade.dispatch(r, k);
+                    }
+                };
+                t.setDaemon(true);
+                t.start();
+                rs[i] = r;
+                System.out.println(String.format("[LOGHUB-SDK-JAVA]: Dispatcher '%s' is started: capacity=%d, batch=%d, wait=%s", t.getName(), r.getCapacity(), Config.LOGHUB_DISPATCH_BATCH, dispatchWait));
+            }
+            return rs;
+        } else {
+            return null;
+        }
+    }
+
+    private static EventRing nextRing() {
+        EventRing[] rs = rings;
+        if (rs != null) {
+            return rs[Math.floorMod(ringIndex.getAndIncrement(), rs.length)];
+        } else {
+            return null;
+        }
+    }
+
+    private static EventSlot claim(EventRing ring) {
+        Wait w = dispatchWait;
+        while (ThreadManager.isAlive()) {
+            EventSlot s = ring.claim();
+            if (s != null) {
+                return s;
+            }
+            w.idle();
+        }
+        return null;
+    }
+
+    private static boolean admit(ThreadInfo ti, long time, Input input, String clazz, String method, String file, int line, String logger, String message) {
+        InputEventLimiter l = eventLimiter;
+        if ((l != null) && !ti.summary) {
+            InputEventLimiter.Site s = l.site(clazz, method, file, line);
+            if (l.acquire(s, message)) {
+                if (l.isSummaryDue(s)) {
+                    summarize(ti, time, input, s, logger);
+                }
+                return true;
+            } else {
+                return false;
+            }
+        } else {
+            return true;
+        }
+    }
+
+    private static void summarize(ThreadInfo ti, long time, Input input, InputEventLimiter.Site site, String logger) {
+        site.burst = false;
+        site.sampled = false;
+        site.summaryTime = System.nanoTime();
+        long c = site.lostCount.sumThenReset();
+        long z = site.lostSize.sumThenReset();
+        if (c > 0L) {
+            ti.summary = true;
+            try {
+                Connector[] cs = connectors;
+                for (int i = 0, ci = cs.length; i < ci; ++i) {
+                    cs[i].suppress(c, z);
+                }
+                logPrimitive(time, input,
+                        site.clazz, site.method, null, site.file, site.line,
+                        Level.WARN, logger, Type.DEFAULT, null, null, null,
+                        "{} events ({} bytes) are suppressed", Param.kinds(Param.LONG, Param.LONG), null, c, null, z);
+            } finally {
+                ti.summary = false;
+            }
+        }
+    }
+
+    private static void reserve(long time, long thread, long begin, long end) {
+        ThreadInfo ti = threadInfo.get();
+        boolean in = ti.inside;
+        ti.inside = true;
+        try {
+            Connector[] cs = connectors;
+            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                cs[i].reserve(time, thread, begin, end);
+            }
+        } finally {
+            ti.inside = in;
+        }
+    }
+
+    private static void dispatch(EventRing ring, ThreadKeeper keeper) {
+        try {
+            threadInfo.get().inside = true;
+            EventBatch b = new EventBatch(Math.min(Config.LOGHUB_DISPATCH_BATCH, ring.getCapacity()));
+            Wait w = dispatchWait;
+            for (;;) {
+                EventSlot s = ring.poll();
+                while ((s != null) && !b.isFull()) {
+                    b.add(s.time, s.number, s.input,
+                            s.clazz, s.method, s.statement, s.file, s.line,
+                            s.level, s.logger, s.type, s.exception, s.tag, s.tags,
+                            s.message, s.count, s.kinds,
+                            s.param1, s.value1, s.param2, s.value2, s.param3, s.value3, s.param4, s.value4, s.param5, s.value5);
+                    ring.release(s);
+                    s = ring.poll();
+                }
+                if (!b.isEmpty()) {
+                    dispatch(b);
+                } else if (ThreadManager.isAlive()) {
+                    w.idle();
+                } else {
+                    break;
+                }
+            }
+        } finally {
+            keeper.close();
+        }
+    }
+
+    private static void dispatch(EventBatch batch) {
+        try {
+            Connector[] cs = connectors;
+            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                try {
+                    cs[i].logBatch(batch);
+                } catch (Throwable e) {
+                    System.out.println(String.format("[LOGHUB-SDK-JAVA]: Events are not dispatched: %s", e));
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
     public static boolean isInside() {
         return threadInfo.get().inside;
     }
 
+    public static long getLostCount() {
+        InputEventLimiter l = eventLimiter;
+        return (l != null) ? l.getLostCount() : 0L;
+    }
+
+    public static long getLostSize() {
+        InputEventLimiter l = eventLimiter;
+        return (l != null) ? l.getLostSize() : 0L;
+    }
+
+    public static boolean isEnabled(Level level, String logger) {
+        return LevelTable.isEnabled(level, logger);
+    }
+
     public static void log(long time, Input input,
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -74,18 +245,26 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -96,6 +275,10 @@ public final class Facade {
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message, Object param1) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -106,18 +289,26 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message, param1);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, param1);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -128,6 +319,10 @@ public final class Facade {
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message, Object param1, Object param2) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -138,18 +333,26 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message, param1, param2);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, param1, param2);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -160,6 +363,10 @@ public final class Facade {
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message, Object param1, Object param2, Object param3) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -170,18 +377,26 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message, param1, param2, param3);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, param1, param2, param3);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -192,6 +407,10 @@ public final class Facade {
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message, Object param1, Object param2, Object param3, Object param4) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -202,18 +421,26 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message, param1, param2, param3, param4);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, param1, param2, param3, param4);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -224,6 +451,10 @@ public final class Facade {
                            String clazz, String method, String statement, String file, int line,
                            Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                            String message, Object param1, Object param2, Object param3, Object param4, Object param5) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
         Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
         Validator.notNull("input", input);
         Validator.notNull("level", level);
@@ -234,18 +465,246 @@ public final class Facade {
         if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4, param5))) {
             if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4, param5))) {
                 ThreadInfo ti = threadInfo.get();
-                if (!ti.inside) {
-                    ti.inside = true;
-                    try {
-                        Connector[] cs = connectors;
-                        for (int i = 0, ci = cs.length; i < ci; ++i) {
-                            cs[i].log(time, eventNumber.getAndIncrement(), input,
-                                    clazz, method, statement, file, line,
-                                    level, logger, type, exception, tag, tags,
-                                    message, param1, param2, param3, param4, param5);
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, param1, param2, param3, param4, param5);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].log(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, param1, param2, param3, param4, param5);
+                            }
+                        } finally {
+                            ti.inside = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static void logPrimitive(long time, Input input,
+                                    String clazz, String method, String statement, String file, int line,
+                                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                    String message, int kinds, Object param1, long value1) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
+        Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
+        Validator.notNull("input", input);
+        Validator.notNull("level", level);
+        Validator.notNull("logger", logger);
+        Validator.notNull("type", type);
+        Validator.notNull("message", message);
+
+        if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+            if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+                ThreadInfo ti = threadInfo.get();
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, kinds, param1, value1);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].logPrimitive(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, kinds, param1, value1);
+                            }
+                        } finally {
+                            ti.inside = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static void logPrimitive(long time, Input input,
+                                    String clazz, String method, String statement, String file, int line,
+                                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                    String message, int kinds, Object param1, long value1, Object param2, long value2) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
+        Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
+        Validator.notNull("input", input);
+        Validator.notNull("level", level);
+        Validator.notNull("logger", logger);
+        Validator.notNull("type", type);
+        Validator.notNull("message", message);
+
+        if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+            if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+                ThreadInfo ti = threadInfo.get();
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, kinds, param1, value1, param2, value2);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].logPrimitive(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, kinds, param1, value1, param2, value2);
+                            }
+                        } finally {
+                            ti.inside = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static void logPrimitive(long time, Input input,
+                                    String clazz, String method, String statement, String file, int line,
+                                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
+        Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
+        Validator.notNull("input", input);
+        Validator.notNull("level", level);
+        Validator.notNull("logger", logger);
+        Validator.notNull("type", type);
+        Validator.notNull("message", message);
+
+        if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+            if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+                ThreadInfo ti = threadInfo.get();
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, kinds, param1, value1, param2, value2, param3, value3);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].logPrimitive(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, kinds, param1, value1, param2, value2, param3, value3);
+                            }
+                        } finally {
+                            ti.inside = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static void logPrimitive(long time, Input input,
+                                    String clazz, String method, String statement, String file, int line,
+                                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
+        Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
+        Validator.notNull("input", input);
+        Validator.notNull("level", level);
+        Validator.notNull("logger", logger);
+        Validator.notNull("type", type);
+        Validator.notNull("message", message);
+
+        if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+            if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+                ThreadInfo ti = threadInfo.get();
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, kinds, param1, value1, param2, value2, param3, value3, param4, value4);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].logPrimitive(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, kinds, param1, value1, param2, value2, param3, value3, param4, value4);
+                            }
+                        } finally {
+                            ti.inside = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static void logPrimitive(long time, Input input,
+                                    String clazz, String method, String statement, String file, int line,
+                                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) {
+        if (!LevelTable.isEnabled(level, logger)) {
+            return;
+        }
+
+        Validator.inRangeLong("time", time, 0L, Long.MAX_VALUE);
+        Validator.notNull("input", input);
+        Validator.notNull("level", level);
+        Validator.notNull("logger", logger);
+        Validator.notNull("type", type);
+        Validator.notNull("message", message);
+
+        if ((eventInclude == null) || (eventInclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+            if ((eventExclude == null) || (!eventExclude.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message))) {
+                ThreadInfo ti = threadInfo.get();
+                if (!ti.inside && admit(ti, time, input, clazz, method, file, line, logger, message)) {
+                    long n = eventNumber.next(ti.number);
+                    EventRing r = ti.ring;
+                    EventSlot s = (r != null) ? claim(r) : null;
+                    if (s != null) {
+                        s.set(time, n, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message, kinds, param1, value1, param2, value2, param3, value3, param4, value4, param5, value5);
+                        r.publish(s);
+                    } else {
+                        ti.inside = true;
+                        try {
+                            Connector[] cs = connectors;
+                            for (int i = 0, ci = cs.length; i < ci; ++i) {
+                                cs[i].logPrimitive(time, n, input,
+                                        clazz, method, statement, file, line,
+                                        level, logger, type, exception, tag, tags,
+                                        message, kinds, param1, value1, param2, value2, param3, value3, param4, value4, param5, value5);
+                            }
+                        } finally {
+                            ti.inside = false;
                         }
-                    } finally {
-                        ti.inside = false;
                     }
                 }
             }
@@ -256,10 +715,16 @@ public final class Facade {
     }
 
     private static final class ThreadInfo {
+        public final EventRing ring;
+        public final NumberBlock number;
         public boolean inside;
+        public boolean summary;
 
-        public ThreadInfo() {
+        public ThreadInfo(EventRing ring) {
+            this.ring = ring;
+            this.number = new NumberBlock();
             this.inside = false;
+            this.summary = false;
         }
     }
 }
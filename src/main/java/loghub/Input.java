@@ -52,4 +52,12 @@ public enum Input {
     public static Input get(byte id) {
         return inputs.get(id);
     }
+
+    public static Input parse(String value) {
+        if (value != null) {
+            return Input.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
 }
@@ -17,6 +17,8 @@
 
 package loghub;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -28,17 +30,25 @@ public final class InputEventFilter implements Serializable {
 
     public final long begin;
     public final long end;
+    public final String expression;
+    private transient InputEventPredicate predicate;
 
     public InputEventFilter(long begin, long end) {
+        this(begin, end, null);
+    }
+
+    public InputEventFilter(long begin, long end, String expression) {
         this.begin = begin;
         this.end = end;
+        this.expression = expression;
+        this.predicate = InputEventParser.parse(expression);
     }
 
     public boolean match(long time, Input input,
                          String clazz, String method, String statement, String file, int line,
                          Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                          String message) {
-        return (time >= begin) && (time <= end);
+        return (time >= begin) && (time <= end) && predicate.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
     }
 
     public boolean match(long time, Input input,
@@ -76,9 +86,14 @@ public final class InputEventFilter implements Serializable {
         return match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.predicate = InputEventParser.parse(expression);
+    }
+
     public static InputEventFilter parse(String value) {
         if (value != null) {
-            return new InputEventFilter(0L, Long.MAX_VALUE);
+            return new InputEventFilter(0L, Long.MAX_VALUE, value);
         } else {
             return null;
         }
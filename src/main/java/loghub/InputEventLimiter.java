@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import loghub.config.Validator;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+final class InputEventLimiter {
+    private static final int CAPACITY = 8192;
+    private static final int PROBE_COUNT = 8;
+    private static final long SUMMARY_INTERVAL = 1000000000L;
+
+    private final long interval;
+    private final long tolerance;
+    private final double sample;
+    private final AtomicReferenceArray<Site> sites;
+    private final Site overflow;
+    private final int mask;
+    private final LongAdder lostCount;
+    private final LongAdder lostSize;
+
+    InputEventLimiter(int rate, int burst, double sample) {
+        Validator.inRangeInt("rate", rate, 0, 1000000000);
+        Validator.inRangeInt("burst", burst, 1, Integer.MAX_VALUE);
+        Validator.inRangeDouble("sample", sample, 0.0, 1.0);
+
+        this.interval = (rate > 0) ? 1000000000L / rate : 0L;
+        this.tolerance = (rate > 0) ? (1000000000L / rate) * (burst - 1) : 0L;
+        this.sample = sample;
+        this.sites = new AtomicReferenceArray<>(CAPACITY);
+        this.overflow = new Site(null, null, null, 0);
+        this.mask = CAPACITY - 1;
+        this.lostCount = new LongAdder();
+        this.lostSize = new LongAdder();
+    }
+
+    static InputEventLimiter create(int rate, int burst, double sample) {
+        if ((rate > 0) || (sample < 1.0)) {
+            return new InputEventLimiter(rate, burst, sample);
+        } else {
+            return null;
+        }
+    }
+
+    long getLostCount() {
+        return lostCount.sum();
+    }
+
+    long getLostSize() {
+        return lostSize.sum();
+    }
+
+    Site site(String clazz, String method, String file, int line) {
+        int h = Objects.hashCode(clazz);
+        h = 31 * h + Objects.hashCode(method);
+        h = 31 * h + Objects.hashCode(file);
+        h = 31 * h + line;
+        h = h ^ (h >>> 16);
+        AtomicReferenceArray<Site> ss = sites;
+        int m = mask;
+        for (int j = 0; j < PROBE_COUNT; ++j) {
+            int i = (h + j) & m;
+            Site s = ss.get(i);
+            if (s == null) {
+                Site ns = new Site(clazz, method, file, line);
+                if (ss.compareAndSet(i, null, ns)) {
+                    return ns;
+                }
+                s = ss.get(i);
+            }
+            if (s.matches(clazz, method, file, line)) {
+                return s;
+            }
+        }
+        return overflow;
+    }
+
+    boolean isSummaryDue(Site site) {
+        return site.burst || (site.sampled && (System.nanoTime() - site.summaryTime >= SUMMARY_INTERVAL));
+    }
+
+    boolean acquire(Site site, String message) {
+        if ((sample < 1.0) && (ThreadLocalRandom.current().nextDouble() >= sample)) {
+            suppress(site, message, false);
+            return false;
+        }
+        if (interval > 0L) {
+            AtomicLong t = site.arrival;
+            long n = System.nanoTime();
+            for (;;) {
+                long a = t.get();
+                long b = Math.max(a, n);
+                if (b - n > tolerance) {
+                    suppress(site, message, true);
+                    return false;
+                } else if (t.compareAndSet(a, b + interval)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void suppress(Site site, String message, boolean limited) {
+        long z = (message != null) ? message.length() : 0L;
+        site.lostCount.increment();
+        site.lostSize.add(z);
+        if (limited) {
+            site.burst = true;
+        } else {
+            site.sampled = true;
+        }
+        lostCount.increment();
+        lostSize.add(z);
+    }
+
+    static final class Site {
+        final String clazz;
+        final String method;
+        final String file;
+        final int line;
+        final AtomicLong arrival;
+        final LongAdder lostCount;
+        final LongAdder lostSize;
+        volatile boolean burst;
+        volatile boolean sampled;
+        volatile long summaryTime;
+
+        Site(String clazz, String method, String file, int line) {
+            this.clazz = clazz;
+            this.method = method;
+            this.file = file;
+            this.line = line;
+            this.arrival = new AtomicLong(Long.MIN_VALUE);
+            this.lostCount = new LongAdder();
+            this.lostSize = new LongAdder();
+            this.burst = false;
+            this.sampled = false;
+            this.summaryTime = System.nanoTime();
+        }
+
+        boolean matches(String clazz, String method, String file, int line) {
+            return (this.line == line) &&
+                   ((this.clazz == clazz) || ((this.clazz != null) && this.clazz.equals(clazz))) &&
+                   ((this.method == method) || ((this.method != null) && this.method.equals(method))) &&
+                   ((this.file == file) || ((this.file != null) && this.file.equals(file)));
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import java.util.ArrayList;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * <pre>
+ * expression := or
+ * or         := and (('||' | 'or') and)*
+ * and        := unary (('&amp;&amp;' | 'and') unary)*
+ * unary      := ('!' | 'not') unary | '(' or ')' | field op value
+ * field      := level | input | type | logger | class | method | statement | file | line | time | tag | exception | message
+ * op         := '==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '^=' | '$=' | '*=' | '~='
+ * value      := word | 'quoted' | "quoted"
+ * </pre>
+ *
+ * Level comparisons are by severity, so 'level &gt;= WARN' matches WARN and ERROR.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+final class InputEventParser {
+    private static final String EQ = "==";
+    private static final String NE = "!=";
+    private static final String LT = "<";
+    private static final String LE = "<=";
+    private static final String GT = ">";
+    private static final String GE = ">=";
+    private static final String PREFIX = "^=";
+    private static final String SUFFIX = "$=";
+    private static final String CONTAINS = "*=";
+    private static final String REGEX = "~=";
+
+    private final String expression;
+    private int position;
+    private int start;
+    private String token;
+    private boolean quoted;
+
+    private InputEventParser(String expression) {
+        this.expression = expression;
+        this.position = 0;
+        this.start = 0;
+        this.token = null;
+        this.quoted = false;
+    }
+
+    static InputEventPredicate parse(String expression) {
+        if ((expression == null) || expression.trim().isEmpty()) {
+            return InputEventPredicate.TRUE;
+        }
+        InputEventParser p = new InputEventParser(expression);
+        p.next();
+        InputEventPredicate r = p.parseOr();
+        if (p.token != null) {
+            throw p.error("unexpected '%s'", p.token);
+        }
+        return r;
+    }
+
+    private InputEventPredicate parseOr() {
+        ArrayList<InputEventPredicate> ps = new ArrayList<>(4);
+        ps.add(parseAnd());
+        while (keyword("||", "or")) {
+            next();
+            ps.add(parseAnd());
+        }
+        return InputEventPredicate.or(ps);
+    }
+
+    private InputEventPredicate parseAnd() {
+        ArrayList<InputEventPredicate> ps = new ArrayList<>(4);
+        ps.add(parseUnary());
+        while (keyword("&&", "and")) {
+            next();
+            ps.add(parseUnary());
+        }
+        return InputEventPredicate.and(ps);
+    }
+
+    private InputEventPredicate parseUnary() {
+        if (token == null) {
+            throw error("unexpected end of expression");
+        } else if (keyword("!", "not")) {
+            next();
+            return InputEventPredicate.not(parseUnary());
+        } else if (keyword("(", null)) {
+            next();
+            InputEventPredicate p = parseOr();
+            if (!keyword(")", null)) {
+                throw error("expected ')'");
+            }
+            next();
+            return p;
+        } else {
+            return parseCompare();
+        }
+    }
+
+    private InputEventPredicate parseCompare() {
+        int fs = start;
+        String field = word("field").toLowerCase();
+        String op = token;
+        if ((op == null) || quoted || !isOperator(op)) {
+            throw error("expected operator after '%s'", field);
+        }
+        next();
+        int vs = start;
+        String value = word("value");
+        InputEventPredicate p;
+        try {
+            switch (field) {
+                case "level":
+                    p = compareLevel(op, Level.parse(value));
+                    break;
+                case "input":
+                    p = compareInput(op, Input.parse(value));
+                    break;
+                case "type":
+                    p = compareType(op, Type.parse(value));
+                    break;
+                case "line":
+                    p = compareLine(op, Integer.parseInt(value));
+                    break;
+                case "time":
+                    p = compareTime(op, Long.parseLong(value));
+                    break;
+                case "tag":
+                    p = compareTag(op, value);
+                    break;
+                case "class":
+                    p = compareString(InputEventPredicate.FIELD_CLASS, op, value);
+                    break;
+                case "method":
+                    p = compareString(InputEventPredicate.FIELD_METHOD, op, value);
+                    break;
+                case "statement":
+                    p = compareString(InputEventPredicate.FIELD_STATEMENT, op, value);
+                    break;
+                case "file":
+                    p = compareString(InputEventPredicate.FIELD_FILE, op, value);
+                    break;
+                case "logger":
+                    p = compareLogger(op, value);
+                    break;
+                case "message":
+                    p = compareString(InputEventPredicate.FIELD_MESSAGE, op, value);
+                    break;
+                case "exception":
+                    p = compareString(InputEventPredicate.FIELD_EXCEPTION, op, value);
+                    break;
+                default:
+                    p = null;
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            if (e instanceof PatternSyntaxException) {
+                throw error(vs, "illegal pattern '%s'", value);
+            } else {
+                throw error(vs, "illegal value '%s' for field '%s' and operator '%s'", value, field, op);
+            }
+        }
+        if (p != null) {
+            return p;
+        } else {
+            throw error(fs, "unknown field '%s'", field);
+        }
+    }
+
+    private InputEventPredicate compareLevel(String op, Level value) {
+        boolean[] m = new boolean[128];
+        for (Level l : Level.values()) {
+            m[l.id] = compare(op, -l.id, -value.id);
+        }
+        return new InputEventPredicate.LevelMask(m);
+    }
+
+    private InputEventPredicate compareInput(String op, Input value) {
+        boolean[] m = new boolean[128];
+        for (Input i : Input.values()) {
+            m[i.id] = equal(op, i == value);
+        }
+        return new InputEventPredicate.InputMask(m);
+    }
+
+    private InputEventPredicate compareType(String op, Type value) {
+        boolean[] m = new boolean[128];
+        for (Type t : Type.values()) {
+            m[t.id] = equal(op, t == value);
+        }
+        return new InputEventPredicate.TypeMask(m);
+    }
+
+    private InputEventPredicate compareLine(String op, int value) {
+        switch (op) {
+            case EQ:
+                return new InputEventPredicate.LineRange(value, value);
+            case NE:
+                return InputEventPredicate.not(new InputEventPredicate.LineRange(value, value));
+            case LT:
+                return (value > Integer.MIN_VALUE) ? new InputEventPredicate.LineRange(Integer.MIN_VALUE, value - 1) : InputEventPredicate.FALSE;
+            case LE:
+                return new InputEventPredicate.LineRange(Integer.MIN_VALUE, value);
+            case GT:
+                return (value < Integer.MAX_VALUE) ? new InputEventPredicate.LineRange(value + 1, Integer.MAX_VALUE) : InputEventPredicate.FALSE;
+            case GE:
+                return new InputEventPredicate.LineRange(value, Integer.MAX_VALUE);
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private InputEventPredicate compareTime(String op, long value) {
+        switch (op) {
+            case EQ:
+                return new InputEventPredicate.TimeRange(value, value);
+            case NE:
+                return InputEventPredicate.not(new InputEventPredicate.TimeRange(value, value));
+            case LT:
+                return (value > Long.MIN_VALUE) ? new InputEventPredicate.TimeRange(Long.MIN_VALUE, value - 1L) : InputEventPredicate.FALSE;
+            case LE:
+                return new InputEventPredicate.TimeRange(Long.MIN_VALUE, value);
+            case GT:
+                return (value < Long.MAX_VALUE) ? new InputEventPredicate.TimeRange(value + 1L, Long.MAX_VALUE) : InputEventPredicate.FALSE;
+            case GE:
+                return new InputEventPredicate.TimeRange(value, Long.MAX_VALUE);
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private InputEventPredicate compareTag(String op, String value) {
+        switch (op) {
+            case EQ:
+                return new InputEventPredicate.TagKey(value);
+            case NE:
+                return InputEventPredicate.not(new InputEventPredicate.TagKey(value));
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private InputEventPredicate compareLogger(String op, String value) {
+        switch (op) {
+            case EQ:
+                return InputEventPredicate.LoggerTrie.parse(value);
+            case NE:
+                return InputEventPredicate.not(InputEventPredicate.LoggerTrie.parse(value));
+            default:
+                return compareString(InputEventPredicate.FIELD_LOGGER, op, value);
+        }
+    }
+
+    private InputEventPredicate compareString(int field, String op, String value) {
+        switch (op) {
+            case EQ:
+                return new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_EQ, value);
+            case NE:
+                return InputEventPredicate.not(new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_EQ, value));
+            case PREFIX:
+                return new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_PREFIX, value);
+            case SUFFIX:
+                return new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_SUFFIX, value);
+            case CONTAINS:
+                return new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_CONTAINS, value);
+            case REGEX:
+                return new InputEventPredicate.StringMatch(field, InputEventPredicate.OP_REGEX, value);
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static boolean compare(String op, int value1, int value2) {
+        switch (op) {
+            case EQ:
+                return value1 == value2;
+            case NE:
+                return value1 != value2;
+            case LT:
+                return value1 < value2;
+            case LE:
+                return value1 <= value2;
+            case GT:
+                return value1 > value2;
+            case GE:
+                return value1 >= value2;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static boolean equal(String op, boolean equal) {
+        switch (op) {
+            case EQ:
+                return equal;
+            case NE:
+                return !equal;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static boolean isOperator(String token) {
+        switch (token) {
+            case EQ:
+            case NE:
+            case LT:
+            case LE:
+            case GT:
+            case GE:
+            case PREFIX:
+            case SUFFIX:
+            case CONTAINS:
+            case REGEX:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean keyword(String symbol, String word) {
+        return (token != null) && !quoted && (token.equals(symbol) || ((word != null) && token.equalsIgnoreCase(word)));
+    }
+
+    private String word(String name) {
+        if ((token == null) || (!quoted && (isOperator(token) || isSymbol(token.charAt(0)) || token.equals("!")))) {
+            throw error("expected %s", name);
+        }
+        String w = token;
+        next();
+        return w;
+    }
+
+    private void next() {
+        String e = expression;
+        int l = e.length();
+        int i = position;
+        while ((i < l) && Character.isWhitespace(e.charAt(i))) {
+            ++i;
+        }
+        start = i;
+        quoted = false;
+        if (i >= l) {
+            token = null;
+        } else {
+            char c = e.charAt(i);
+            char n = (i + 1 < l) ? e.charAt(i + 1) : 0;
+            if ((c == '\'') || (c == '"')) {
+                StringBuilder sb = new StringBuilder(16);
+                ++i;
+                for (;;) {
+                    if (i >= l) {
+                        throw error("unterminated string");
+                    }
+                    char q = e.charAt(i++);
+                    if (q == c) {
+                        break;
+                    } else if ((q == '\\') && (i < l)) {
+                        sb.append(e.charAt(i++));
+                    } else {
+                        sb.append(q);
+                    }
+                }
+                token = sb.toString();
+                quoted = true;
+            } else if (((c == '&') && (n == '&')) || ((c == '|') && (n == '|')) || ((n == '=') && (isOperatorStart(c) || (c == '$') || (c == '*')))) {
+                token = e.substring(i, i + 2);
+                i += 2;
+            } else if (isSymbol(c) || isOperatorStart(c)) {
+                token = String.valueOf(c);
+                ++i;
+            } else {
+                int s = i;
+                while ((i < l) && !isDelimiter(e, i)) {
+                    ++i;
+                }
+                token = e.substring(s, i);
+            }
+        }
+        position = i;
+    }
+
+    private static boolean isSymbol(char c) {
+        return (c == '(') || (c == ')');
+    }
+
+    private static boolean isOperatorStart(char c) {
+        return (c == '=') || (c == '!') || (c == '<') || (c == '>') || (c == '^') || (c == '~');
+    }
+
+    private static boolean isDelimiter(String e, int i) {
+        char c = e.charAt(i);
+        if (Character.isWhitespace(c) || isSymbol(c) || isOperatorStart(c) || (c == '\'') || (c == '"')) {
+            return true;
+        } else if ((c == '$') || (c == '*') || (c == '&') || (c == '|')) {
+            char n = (i + 1 < e.length()) ? e.charAt(i + 1) : 0;
+            return (n == '=') || ((c == '&') && (n == '&')) || ((c == '|') && (n == '|'));
+        } else {
+            return false;
+        }
+    }
+
+    private IllegalArgumentException error(String format, Object... args) {
+        return error(start, format, args);
+    }
+
+    private IllegalArgumentException error(int position, String format, Object... args) {
+        return new IllegalArgumentException(String.format("Filter '%s' is illegal at position %d: %s", expression, position, String.format(format, args)));
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+abstract class InputEventPredicate {
+    static final int COST_ID = 1;
+    static final int COST_LOGGER = 2;
+    static final int COST_NUMBER = 1;
+    static final int COST_EXCEPTION = 2;
+    static final int COST_STRING = 3;
+    static final int COST_TAG = 4;
+    static final int COST_CONTAINS = 8;
+    static final int COST_REGEX = 16;
+
+    static final int FIELD_CLASS = 1;
+    static final int FIELD_METHOD = 2;
+    static final int FIELD_STATEMENT = 3;
+    static final int FIELD_FILE = 4;
+    static final int FIELD_LOGGER = 5;
+    static final int FIELD_MESSAGE = 6;
+    static final int FIELD_EXCEPTION = 7;
+
+    static final int OP_EQ = 1;
+    static final int OP_PREFIX = 2;
+    static final int OP_SUFFIX = 3;
+    static final int OP_CONTAINS = 4;
+    static final int OP_REGEX = 5;
+
+    static final InputEventPredicate TRUE = new Constant(true);
+    static final InputEventPredicate FALSE = new Constant(false);
+
+    abstract int cost();
+
+    abstract boolean match(long time, Input input,
+                           String clazz, String method, String statement, String file, int line,
+                           Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                           String message);
+
+    static InputEventPredicate and(ArrayList<InputEventPredicate> predicates) {
+        ArrayList<InputEventPredicate> ps = new ArrayList<>(predicates.size());
+        for (InputEventPredicate p : predicates) {
+            if (p instanceof And) {
+                ps.addAll(Arrays.asList(((And) p).predicates));
+            } else if (p == FALSE) {
+                return FALSE;
+            } else if (p != TRUE) {
+                ps.add(p);
+            }
+        }
+        if (ps.isEmpty()) {
+            return TRUE;
+        } else if (ps.size() == 1) {
+            return ps.get(0);
+        } else {
+            ps.sort(Comparator.comparingInt(InputEventPredicate::cost));
+            return new And(ps.toArray(new InputEventPredicate[0]));
+        }
+    }
+
+    static InputEventPredicate or(ArrayList<InputEventPredicate> predicates) {
+        ArrayList<InputEventPredicate> ps = new ArrayList<>(predicates.size());
+        LoggerTrie lt = null;
+        for (InputEventPredicate p : predicates) {
+            if (p instanceof Or) {
+                for (InputEventPredicate op : ((Or) p).predicates) {
+                    if (op instanceof LoggerTrie) {
+                        lt = (lt != null) ? lt.merge((LoggerTrie) op) : (LoggerTrie) op;
+                    } else {
+                        ps.add(op);
+                    }
+                }
+            } else if (p instanceof LoggerTrie) {
+                lt = (lt != null) ? lt.merge((LoggerTrie) p) : (LoggerTrie) p;
+            } else if (p == TRUE) {
+                return TRUE;
+            } else if (p != FALSE) {
+                ps.add(p);
+            }
+        }
+        if (lt != null) {
+            ps.add(lt);
+        }
+        if (ps.isEmpty()) {
+            return FALSE;
+        } else if (ps.size() == 1) {
+            return ps.get(0);
+        } else {
+            ps.sort(Comparator.comparingInt(InputEventPredicate::cost));
+            return new Or(ps.toArray(new InputEventPredicate[0]));
+        }
+    }
+
+    static InputEventPredicate not(InputEventPredicate predicate) {
+        if (predicate == TRUE) {
+            return FALSE;
+        } else if (predicate == FALSE) {
+            return TRUE;
+        } else if (predicate instanceof Not) {
+            return ((Not) predicate).predicate;
+        } else if (predicate instanceof IdMask) {
+            return ((IdMask) predicate).invert();
+        } else {
+            return new Not(predicate);
+        }
+    }
+
+    static final class Constant extends InputEventPredicate {
+        private final boolean value;
+
+        Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        int cost() {
+            return 0;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return value;
+        }
+    }
+
+    static final class Not extends InputEventPredicate {
+        final InputEventPredicate predicate;
+
+        Not(InputEventPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        int cost() {
+            return predicate.cost();
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return !predicate.match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        }
+    }
+
+    static final class And extends InputEventPredicate {
+        final InputEventPredicate[] predicates;
+        private final int cost;
+
+        And(InputEventPredicate[] predicates) {
+            int c = 0;
+            for (InputEventPredicate p : predicates) {
+                c += p.cost();
+            }
+            this.predicates = predicates;
+            this.cost = c;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            InputEventPredicate[] ps = predicates;
+            for (int i = 0, ci = ps.length; i < ci; ++i) {
+                if (!ps[i].match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Or extends InputEventPredicate {
+        final InputEventPredicate[] predicates;
+        private final int cost;
+
+        Or(InputEventPredicate[] predicates) {
+            int c = 0;
+            for (InputEventPredicate p : predicates) {
+                c += p.cost();
+            }
+            this.predicates = predicates;
+            this.cost = c;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            InputEventPredicate[] ps = predicates;
+            for (int i = 0, ci = ps.length; i < ci; ++i) {
+                if (ps[i].match(time, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static abstract class IdMask extends InputEventPredicate {
+        final boolean[] mask;
+
+        IdMask(boolean[] mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        int cost() {
+            return COST_ID;
+        }
+
+        abstract IdMask invert();
+
+        static boolean[] invert(boolean[] mask) {
+            boolean[] m = new boolean[mask.length];
+            for (int i = 0, ci = m.length; i < ci; ++i) {
+                m[i] = !mask[i];
+            }
+            return m;
+        }
+    }
+
+    static final class LevelMask extends IdMask {
+        LevelMask(boolean[] mask) {
+            super(mask);
+        }
+
+        @Override
+        IdMask invert() {
+            return new LevelMask(invert(mask));
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return mask[level.id];
+        }
+    }
+
+    static final class InputMask extends IdMask {
+        InputMask(boolean[] mask) {
+            super(mask);
+        }
+
+        @Override
+        IdMask invert() {
+            return new InputMask(invert(mask));
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return mask[input.id];
+        }
+    }
+
+    static final class TypeMask extends IdMask {
+        TypeMask(boolean[] mask) {
+            super(mask);
+        }
+
+        @Override
+        IdMask invert() {
+            return new TypeMask(invert(mask));
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return mask[type.id];
+        }
+    }
+
+    static final class LineRange extends InputEventPredicate {
+        private final int min;
+        private final int max;
+
+        LineRange(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        int cost() {
+            return COST_NUMBER;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return (line >= min) && (line <= max);
+        }
+    }
+
+    static final class TimeRange extends InputEventPredicate {
+        private final long min;
+        private final long max;
+
+        TimeRange(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        int cost() {
+            return COST_NUMBER;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            return (time >= min) && (time <= max);
+        }
+    }
+
+    static final class TagKey extends InputEventPredicate {
+        private final String key;
+
+        TagKey(String key) {
+            this.key = key;
+        }
+
+        @Override
+        int cost() {
+            return COST_TAG;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            if ((tag != null) && key.equals(tag.key)) {
+                return true;
+            }
+            if (tags != null) {
+                for (int i = 0, ci = tags.length; i < ci; ++i) {
+                    Tag t = tags[i];
+                    if ((t != null) && key.equals(t.key)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class LoggerTrie extends InputEventPredicate {
+        private static final int CACHE_CAPACITY = 4096;
+
+        private final String[] exacts;
+        private final String[] prefixes;
+        private final Node root;
+        private final AtomicReferenceArray<String> matched;
+        private final AtomicReferenceArray<String> unmatched;
+        private final int mask;
+
+        LoggerTrie(String[] exacts, String[] prefixes) {
+            Node r = new Node();
+            for (String e : exacts) {
+                r.add(e, 0).exact = true;
+            }
+            for (String p : prefixes) {
+                r.add(p, 0).subtree = true;
+            }
+            this.exacts = exacts;
+            this.prefixes = prefixes;
+            this.root = r;
+            this.matched = new AtomicReferenceArray<>(CACHE_CAPACITY);
+            this.unmatched = new AtomicReferenceArray<>(CACHE_CAPACITY);
+            this.mask = CACHE_CAPACITY - 1;
+        }
+
+        static LoggerTrie parse(String value) {
+            if (value.equals("*")) {
+                return new LoggerTrie(new String[0], new String[]{""});
+            } else if (value.endsWith(".*")) {
+                return new LoggerTrie(new String[0], new String[]{value.substring(0, value.length() - 2)});
+            } else {
+                return new LoggerTrie(new String[]{value}, new String[0]);
+            }
+        }
+
+        LoggerTrie merge(LoggerTrie trie) {
+            String[] es = Arrays.copyOf(exacts, exacts.length + trie.exacts.length);
+            System.arraycopy(trie.exacts, 0, es, exacts.length, trie.exacts.length);
+            String[] ps = Arrays.copyOf(prefixes, prefixes.length + trie.prefixes.length);
+            System.arraycopy(trie.prefixes, 0, ps, prefixes.length, trie.prefixes.length);
+            return new LoggerTrie(es, ps);
+        }
+
+        @Override
+        int cost() {
+            return COST_LOGGER;
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            if (logger != null) {
+                int i = System.identityHashCode(logger) & mask;
+                if (matched.get(i) == logger) {
+                    return true;
+                } else if (unmatched.get(i) == logger) {
+                    return false;
+                }
+                boolean m = root.match(logger);
+                (m ? matched : unmatched).set(i, logger);
+                return m;
+            } else {
+                return false;
+            }
+        }
+
+        static final class Node {
+            private String[] keys = new String[0];
+            private int[] hashes = new int[0];
+            private Node[] nodes = new Node[0];
+            boolean exact;
+            boolean subtree;
+
+            Node add(String logger, int begin) {
+                if (logger.isEmpty()) {
+                    return this;
+                }
+                int e = logger.indexOf('.', begin);
+                int end = (e >= 0) ? e : logger.length();
+                Node n = find(logger, begin, end);
+                if (n == null) {
+                    int c = keys.length;
+                    keys = Arrays.copyOf(keys, c + 1);
+                    hashes = Arrays.copyOf(hashes, c + 1);
+                    nodes = Arrays.copyOf(nodes, c + 1);
+                    n = new Node();
+                    keys[c] = logger.substring(begin, end);
+                    hashes[c] = hash(logger, begin, end);
+                    nodes[c] = n;
+                }
+                return (e >= 0) ? n.add(logger, e + 1) : n;
+            }
+
+            boolean match(String logger) {
+                Node n = this;
+                int b = 0;
+                for (;;) {
+                    if (n.subtree) {
+                        return true;
+                    }
+                    int e = logger.indexOf('.', b);
+                    n = n.find(logger, b, (e >= 0) ? e : logger.length());
+                    if (n == null) {
+                        return false;
+                    } else if (e < 0) {
+                        return n.exact || n.subtree;
+                    }
+                    b = e + 1;
+                }
+            }
+
+            private Node find(String logger, int begin, int end) {
+                int h = hash(logger, begin, end);
+                int l = end - begin;
+                String[] ks = keys;
+                int[] hs = hashes;
+                for (int i = 0, ci = ks.length; i < ci; ++i) {
+                    if ((hs[i] == h) && (ks[i].length() == l) && logger.regionMatches(begin, ks[i], 0, l)) {
+                        return nodes[i];
+                    }
+                }
+                return null;
+            }
+
+            private static int hash(String logger, int begin, int end) {
+                int h = 0;
+                for (int i = begin; i < end; ++i) {
+                    h = 31 * h + logger.charAt(i);
+                }
+                return h;
+            }
+        }
+    }
+
+    static final class StringMatch extends InputEventPredicate {
+        private final int field;
+        private final int op;
+        private final String value;
+        private final Pattern pattern;
+        private final ThreadLocal<Matcher> matcher;
+
+        StringMatch(int field, int op, String value) {
+            this.field = field;
+            this.op = op;
+            this.value = value;
+            this.pattern = (op == OP_REGEX) ? Pattern.compile(value) : null;
+            this.matcher = (op == OP_REGEX) ? ThreadLocal.withInitial(() -> pattern.matcher("")) : null;
+        }
+
+        @Override
+        int cost() {
+            if (op == OP_REGEX) {
+                return COST_REGEX;
+            } else if (op == OP_CONTAINS) {
+                return COST_CONTAINS;
+            } else if (field == FIELD_EXCEPTION) {
+                return COST_EXCEPTION;
+            } else {
+                return COST_STRING;
+            }
+        }
+
+        @Override
+        boolean match(long time, Input input,
+                      String clazz, String method, String statement, String file, int line,
+                      Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                      String message) {
+            String v;
+            switch (field) {
+                case FIELD_CLASS:
+                    v = clazz;
+                    break;
+                case FIELD_METHOD:
+                    v = method;
+                    break;
+                case FIELD_STATEMENT:
+                    v = statement;
+                    break;
+                case FIELD_FILE:
+                    v = file;
+                    break;
+                case FIELD_LOGGER:
+                    v = logger;
+                    break;
+                case FIELD_MESSAGE:
+                    v = message;
+                    break;
+                case FIELD_EXCEPTION:
+                    v = (exception != null) ? exception.getClass().getName() : null;
+                    break;
+                default:
+                    v = null;
+                    break;
+            }
+            if (v != null) {
+                switch (op) {
+                    case OP_EQ:
+                        return v.equals(value);
+                    case OP_PREFIX:
+                        return v.startsWith(value);
+                    case OP_SUFFIX:
+                        return v.endsWith(value);
+                    case OP_CONTAINS:
+                        return v.contains(value);
+                    case OP_REGEX:
+                        return matcher.get().reset(v).find();
+                    default:
+                        return false;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -56,4 +56,12 @@ public enum Level {
     public static Level get(byte id) {
         return levels.get(id);
     }
+
+    public static Level parse(String value) {
+        if (value != null) {
+            return Level.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import loghub.config.Validator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches resolved thresholds for at most {@link #ENTRY_COUNT_MAX} distinct loggers. Loggers beyond that limit
+ * get uncached entries which re-resolve their threshold after every level change.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class LevelTable {
+    public static final int ENTRY_COUNT_MAX = 16384;
+
+    private static final AtomicLong generation = new AtomicLong(0L);
+    private static final ConcurrentHashMap<String, Level> levels = createLevels();
+    private static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(1024);
+    private static volatile Level rootLevel = Config.LOGHUB_LEVEL;
+
+    private LevelTable() {
+    }
+
+    private static ConcurrentHashMap<String, Level> createLevels() {
+        ConcurrentHashMap<String, Level> ls = new ConcurrentHashMap<>(64);
+        Map<String, String> m = Config.LOGHUB_LEVELS;
+        if (m != null) {
+            for (Map.Entry<String, String> e : m.entrySet()) {
+                ls.put(e.getKey(), Validator.notNull(e.getKey(), Level.parse(e.getValue())));
+            }
+        }
+        return ls;
+    }
+
+    private static Level resolve(String logger) {
+        ConcurrentHashMap<String, Level> ls = levels;
+        if (!ls.isEmpty()) {
+            for (int i = logger.length(); i > 0; i = logger.lastIndexOf('.', i - 1)) {
+                Level l = ls.get((i == logger.length()) ? logger : logger.substring(0, i));
+                if (l != null) {
+                    return l;
+                }
+            }
+        }
+        return rootLevel;
+    }
+
+    private static void invalidate() {
+        long g = generation.incrementAndGet();
+        for (Entry e : entries.values()) {
+            e.update(g);
+        }
+    }
+
+    public static long getGeneration() {
+        return generation.get();
+    }
+
+    public static Level getRootLevel() {
+        return rootLevel;
+    }
+
+    public static void setRootLevel(Level level) {
+        Validator.notNull("level", level);
+
+        rootLevel = level;
+        invalidate();
+    }
+
+    public static Level getLevel(String logger) {
+        Validator.notNull("logger", logger);
+
+        return levels.get(logger);
+    }
+
+    public static void setLevel(String logger, Level level) {
+        Validator.notNull("logger", logger);
+        Validator.notNull("level", level);
+
+        levels.put(logger, level);
+        invalidate();
+    }
+
+    public static void removeLevel(String logger) {
+        Validator.notNull("logger", logger);
+
+        if (levels.remove(logger) != null) {
+            invalidate();
+        }
+    }
+
+    public static Entry get(String logger) {
+        Validator.notNull("logger", logger);
+
+        Entry e = entries.get(logger);
+        if (e == null) {
+            if (entries.size() < ENTRY_COUNT_MAX) {
+                e = entries.computeIfAbsent(logger, l -> new Entry(l, true));
+                e.update(generation.get());
+            } else {
+                e = new Entry(logger, false);
+            }
+        }
+        return e;
+    }
+
+    public static boolean isEnabled(Level level, String logger) {
+        if ((level != null) && (logger != null)) {
+            return get(logger).isEnabled(level);
+        } else {
+            return true;
+        }
+    }
+
+    public static final class Entry {
+        public final String logger;
+        private final boolean shared;
+        private volatile byte threshold;
+        private volatile long generation;
+
+        private Entry(String logger, boolean shared) {
+            long g = LevelTable.generation.get();
+            this.logger = logger;
+            this.shared = shared;
+            this.threshold = resolve(logger).id;
+            this.generation = g;
+        }
+
+        public Level getLevel() {
+            refresh();
+            return Level.get(threshold);
+        }
+
+        public boolean isEnabled(Level level) {
+            refresh();
+            return level.id <= threshold;
+        }
+
+        private void refresh() {
+            if (!shared) {
+                long g = LevelTable.generation.get();
+                if (g != generation) {
+                    update(g);
+                }
+            }
+        }
+
+        private synchronized void update(long generation) {
+            if (generation > this.generation) {
+                this.threshold = resolve(logger).id;
+                this.generation = generation;
+            }
+        }
+    }
+}
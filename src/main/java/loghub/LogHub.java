@@ -34,6 +34,7 @@ public class LogHub implements Serializable {
     public final InputEvent info;
     public final InputEvent debug;
     public final InputEvent trace;
+    private transient LevelTable.Entry level;
 
     public LogHub(Class<?> logger) {
         this(Validator.notNull("logger", logger).getCanonicalName());
@@ -46,5 +47,15 @@ public class LogHub implements Serializable {
         this.info = new InputEvent(Level.INFO, logger, Type.DEFAULT, null, null, null);
         this.debug = new InputEvent(Level.DEBUG, logger, Type.DEFAULT, null, null, null);
         this.trace = new InputEvent(Level.TRACE, logger, Type.DEFAULT, null, null, null);
+        this.level = LevelTable.get(logger);
+    }
+
+    public boolean isEnabled(Level level) {
+        LevelTable.Entry e = this.level;
+        if (e == null) {
+            e = LevelTable.get(logger);
+            this.level = e;
+        }
+        return e.isEnabled(level);
     }
 }
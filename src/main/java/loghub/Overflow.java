@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Overflow {
+    DROP_NEWEST((byte) 1),
+    DROP_OLDEST((byte) 2),
+    BLOCK((byte) 3),
+    LEVEL((byte) 4);
+
+    private static final Map<Byte, Overflow> overflows = createOverflows();
+
+    public final byte id;
+
+    Overflow(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Overflow> createOverflows() {
+        Map<Byte, Overflow> os = new HashMap<>(4);
+        os.put(DROP_NEWEST.id, DROP_NEWEST);
+        os.put(DROP_OLDEST.id, DROP_OLDEST);
+        os.put(BLOCK.id, BLOCK);
+        os.put(LEVEL.id, LEVEL);
+        return os;
+    }
+
+    public static Overflow get(byte id) {
+        return overflows.get(id);
+    }
+
+    public static Overflow parse(String value) {
+        if (value != null) {
+            return Overflow.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Param {
+    OBJECT((byte) 0),
+    LONG((byte) 1),
+    INT((byte) 2),
+    DOUBLE((byte) 3),
+    FLOAT((byte) 4),
+    BOOLEAN((byte) 5),
+    CHAR((byte) 6);
+
+    private static final int KIND_BITS = 4;
+    private static final int KIND_MASK = 0x0F;
+    private static final Map<Byte, Param> params = createParams();
+
+    public final byte id;
+
+    Param(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Param> createParams() {
+        Map<Byte, Param> ps = new HashMap<>(8);
+        ps.put(OBJECT.id, OBJECT);
+        ps.put(LONG.id, LONG);
+        ps.put(INT.id, INT);
+        ps.put(DOUBLE.id, DOUBLE);
+        ps.put(FLOAT.id, FLOAT);
+        ps.put(BOOLEAN.id, BOOLEAN);
+        ps.put(CHAR.id, CHAR);
+        return ps;
+    }
+
+    public static Param get(byte id) {
+        return params.get(id);
+    }
+
+    public static int kinds(Param param1) {
+        return param1.id;
+    }
+
+    public static int kinds(Param param1, Param param2) {
+        return kinds(param1) | (param2.id << KIND_BITS);
+    }
+
+    public static int kinds(Param param1, Param param2, Param param3) {
+        return kinds(param1, param2) | (param3.id << (KIND_BITS * 2));
+    }
+
+    public static int kinds(Param param1, Param param2, Param param3, Param param4) {
+        return kinds(param1, param2, param3) | (param4.id << (KIND_BITS * 3));
+    }
+
+    public static int kinds(Param param1, Param param2, Param param3, Param param4, Param param5) {
+        return kinds(param1, param2, param3, param4) | (param5.id << (KIND_BITS * 4));
+    }
+
+    public static byte kind(int kinds, int index) {
+        return (byte) ((kinds >>> (KIND_BITS * (index - 1))) & KIND_MASK);
+    }
+
+    public static long value(long value) {
+        return value;
+    }
+
+    public static long value(int value) {
+        return value;
+    }
+
+    public static long value(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    public static long value(float value) {
+        return Float.floatToRawIntBits(value);
+    }
+
+    public static long value(boolean value) {
+        return value ? 1L : 0L;
+    }
+
+    public static long value(char value) {
+        return value;
+    }
+
+    public static Object box(int kinds, int index, Object param, long value) {
+        byte k = kind(kinds, index);
+        if (k == OBJECT.id) {
+            return param;
+        } else if (k == LONG.id) {
+            return value;
+        } else if (k == INT.id) {
+            return (int) value;
+        } else if (k == DOUBLE.id) {
+            return Double.longBitsToDouble(value);
+        } else if (k == FLOAT.id) {
+            return Float.intBitsToFloat((int) value);
+        } else if (k == BOOLEAN.id) {
+            return value != 0L;
+        } else if (k == CHAR.id) {
+            return (char) value;
+        } else {
+            throw new IllegalArgumentException(String.format("Param kind %d is not supported", k));
+        }
+    }
+}
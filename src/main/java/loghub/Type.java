@@ -70,4 +70,12 @@ public enum Type {
     public static Type get(byte id) {
         return types.get(id);
     }
+
+    public static Type parse(String value) {
+        if (value != null) {
+            return Type.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public enum Wait {
+    SPIN((byte) 1),
+    YIELD((byte) 2),
+    PARK((byte) 3);
+
+    private static final long PARK_NANOS = 50000L;
+    private static final Map<Byte, Wait> waits = createWaits();
+
+    public final byte id;
+
+    Wait(byte id) {
+        this.id = id;
+    }
+
+    private static Map<Byte, Wait> createWaits() {
+        Map<Byte, Wait> ws = new HashMap<>(4);
+        ws.put(SPIN.id, SPIN);
+        ws.put(YIELD.id, YIELD);
+        ws.put(PARK.id, PARK);
+        return ws;
+    }
+
+    public void idle() {
+        switch (this) {
+            case SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                LockSupport.parkNanos(PARK_NANOS);
+                break;
+        }
+    }
+
+    public static Wait get(byte id) {
+        return waits.get(id);
+    }
+
+    public static Wait parse(String value) {
+        if (value != null) {
+            return Wait.valueOf(value.trim().toUpperCase());
+        } else {
+            return null;
+        }
+    }
+}
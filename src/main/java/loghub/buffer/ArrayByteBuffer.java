@@ -17,66 +17,625 @@
 
 package loghub.buffer;
 
+import loghub.Level;
 import loghub.concurrent.ThreadSection;
 import loghub.config.Validator;
 
+import java.io.IOException;
 import java.io.OutputStream;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class ArrayByteBuffer implements ByteBuffer {
-    private final ThreadSection section;
-    private final byte[] array;
-    private final AtomicInteger index;
+    public static final int BLOCK_COUNT = 2;
+    public static final long SEND_TIMEOUT = 10000000L;
+
+    private static final VarHandle MARKER = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle INDEX;
+    private static final VarHandle LEVEL;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            INDEX = l.findVarHandle(BlockIndex.class, "index", int.class);
+            LEVEL = l.findVarHandle(Block.class, "level", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ReentrantLock lock;
+    private final BufferPool<byte[]> pool;
+    private final int blockLength;
+    private final Block[] blocks;
+    private final AtomicReference<Block> active;
+    private final ConcurrentLinkedQueue<Block> free;
+    private final ConcurrentLinkedQueue<Block> full;
+    private final Block[] sending;
+    private final java.nio.ByteBuffer[] views;
+    private boolean closed;
 
     public ArrayByteBuffer(int length) {
+        this(length, (length >= BLOCK_COUNT * RECORD_HEADER) ? BLOCK_COUNT : 1);
+    }
+
+    public ArrayByteBuffer(int length, int count) {
+        this(length, count, null);
+    }
+
+    public ArrayByteBuffer(int length, int count, BufferPool<byte[]> pool) {
         Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE);
+        Validator.inRangeInt("count", count, 1, 1024);
 
-        this.section = new ThreadSection(true);
-        this.array = new byte[length];
-        this.index = new AtomicInteger(0);
+        int bl = length / count;
+        BufferPool<byte[]> p = (pool != null) ? pool : BufferPool.getArrays(bl);
+        Block[] bs = new Block[count];
+        ConcurrentLinkedQueue<Block> fr = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < count; ++i) {
+            byte[] a = p.acquire();
+            if (a.length != bl) {
+                throw new IllegalArgumentException(String.format("Pool array length %d is not equal to block length %d", a.length, bl));
+            }
+            bs[i] = new Block(a);
+            if (i > 0) {
+                fr.add(bs[i]);
+            }
+        }
+        bs[0].section.enable();
+
+        this.lock = new ReentrantLock();
+        this.pool = p;
+        this.blockLength = bl;
+        this.blocks = bs;
+        this.active = new AtomicReference<>(bs[0]);
+        this.free = fr;
+        this.full = new ConcurrentLinkedQueue<>();
+        this.sending = new Block[count];
+        this.views = new java.nio.ByteBuffer[count];
+        this.closed = false;
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    public BufferPool<byte[]> getPool() {
+        return pool;
     }
 
     @Override
     public boolean isReady() {
-        return section.isEnabled();
+        return active.get().section.isEnabled() || !free.isEmpty();
     }
 
     @Override
     public boolean append(byte[] array, int offset, int length) {
-        if (section.enter()) {
-            try {
-                byte[] a = this.array;
-                int al = a.length;
-                int l = length + 5;
-                if (index.get() + l <= al) {
-                    int bi = index.getAndAdd(l);
-                    int ei = bi + l;
-                    if (ei <= al) {
-                        System.arraycopy(array, offset, a, bi, length);
-                        a[ei - 1] = 0;
-                        a[bi - 1] = 1;
+        return append(array, offset, length, null);
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length, Level level) {
+        int l = length + RECORD_HEADER;
+        if ((l <= 0) || (l > blockLength)) {
+            return false;
+        }
+        for (;;) {
+            Block b = active.get();
+            if (b.section.enter()) {
+                try {
+                    if (b.append(array, offset, length, l, level)) {
                         return true;
                     }
+                } finally {
+                    b.section.leave();
                 }
-            } finally {
-                section.leave();
+                rotate(b);
+            } else if (!install(b)) {
+                return false;
             }
-            section.disable();
         }
-        return false;
     }
 
     @Override
     public boolean send(OutputStream output) {
-        return false;
+        lock.lock();
+        try {
+            Block a = active.get();
+            if (a.index > 0) {
+                rotate(a);
+            }
+            try {
+                for (Block b = full.peek(); b != null; b = full.peek()) {
+                    boolean q = b.section.await(SEND_TIMEOUT);
+                    int s = b.sent;
+                    int c = b.getCommitted(s);
+                    if (c > s) {
+                        b.write(output, s, c);
+                        b.sent = c;
+                    }
+                    if (!q) {
+                        output.flush();
+                        return false;
+                    }
+                    full.poll();
+                    recycle(b);
+                }
+                output.flush();
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean send(WritableByteChannel channel) {
+        return send(channel, true, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long evict(Level level) {
+        if (lock.tryLock()) {
+            try {
+                for (Block b : full) {
+                    if (!b.section.await(SEND_TIMEOUT)) {
+                        break;
+                    }
+                    if ((level == null) || (b.level > level.id)) {
+                        long n = Math.min(Math.max(b.index, 0), b.array.length) - b.sent;
+                        full.remove(b);
+                        recycle(b);
+                        return Math.max(n, 1L);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public void reserve(Reservation reservation, int length) {
+        int l = length + RECORD_HEADER;
+        if ((l > 0) && (l <= blockLength)) {
+            for (;;) {
+                Block b = active.get();
+                if (b.section.enter()) {
+                    int bi = b.reserve(l);
+                    if (bi >= 0) {
+                        reservation.open(this, b, b.array, bi + RECORD_HEADER, length);
+                        return;
+                    }
+                    b.section.leave();
+                    rotate(b);
+                } else if (!install(b)) {
+                    break;
+                }
+            }
+        }
+        reservation.open();
+    }
+
+    @Override
+    public boolean commit(Reservation reservation, Level level) {
+        if (reservation.getOwner() != this) {
+            return ByteBuffer.super.commit(reservation, level);
+        }
+        Block b = (Block) reservation.getRegion();
+        int p = reservation.getRegionOffset() - RECORD_HEADER;
+        boolean o = reservation.isOverflowed();
+        try {
+            if (o) {
+                b.pad(p, reservation.getLength());
+            } else {
+                b.commit(p, reservation.getLength(), reservation.getSize(), level);
+            }
+        } finally {
+            b.section.leave();
+            reservation.detach();
+        }
+        return !o || append(reservation.getArray(), reservation.getOffset(), reservation.getSize(), level);
+    }
+
+    @Override
+    public void abort(Reservation reservation) {
+        if (reservation.getOwner() != this) {
+            ByteBuffer.super.abort(reservation);
+            return;
+        }
+        Block b = (Block) reservation.getRegion();
+        try {
+            b.pad(reservation.getRegionOffset() - RECORD_HEADER, reservation.getLength());
+        } finally {
+            b.section.leave();
+            reservation.detach();
+        }
+    }
+
+    boolean spill(WritableByteChannel channel, boolean all, long limit) {
+        return send(channel, all, limit);
+    }
+
+    boolean hasFull() {
+        return !full.isEmpty();
+    }
+
+    boolean hasFree() {
+        return !free.isEmpty();
     }
 
     @Override
     public void reset() {
-        index.set(0);
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Block[] bs = blocks;
+            for (Block b : bs) {
+                b.section.disable();
+            }
+            for (Block b : bs) {
+                b.section.await();
+                b.clear();
+            }
+            full.clear();
+            free.clear();
+            for (int i = 1, ci = bs.length; i < ci; ++i) {
+                free.add(bs[i]);
+            }
+            bs[0].section.enable();
+            active.set(bs[0]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Block[] bs = blocks;
+            for (Block b : bs) {
+                b.section.disable();
+                b.queued = true;
+            }
+            free.clear();
+            for (Block b : bs) {
+                b.section.await();
+                b.clear();
+            }
+            full.clear();
+            for (Block b : bs) {
+                pool.release(b.array);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean send(WritableByteChannel channel, boolean rotate, long limit) {
+        lock.lock();
+        try {
+            if (rotate) {
+                Block a = active.get();
+                if (a.index > 0) {
+                    rotate(a);
+                }
+            }
+            Block[] bs = sending;
+            java.nio.ByteBuffer[] vs = views;
+            long l = limit;
+            for (;;) {
+                int n = 0;
+                boolean q = true;
+                boolean m = false;
+                boolean t = false;
+                for (Block b : full) {
+                    if (n >= bs.length) {
+                        break;
+                    }
+                    q = b.section.await(SEND_TIMEOUT);
+                    int e = b.getCommitted(b.sent);
+                    int s = b.skip(b.sent, e);
+                    int c = b.getRun(s, e, l);
+                    if ((c == s) && (c < e) && (b.array[c] == RECORD_COMMITTED)) {
+                        t = true;
+                        break;
+                    }
+                    l -= c - s;
+                    java.nio.ByteBuffer v = b.view;
+                    v.clear();
+                    v.position(s);
+                    v.limit(c);
+                    b.sent = s;
+                    b.end = e;
+                    bs[n] = b;
+                    vs[n] = v;
+                    n++;
+                    if (c < e) {
+                        m = true;
+                        break;
+                    } else if (!q) {
+                        break;
+                    }
+                }
+                boolean r = true;
+                try {
+                    if (channel instanceof GatheringByteChannel) {
+                        GatheringByteChannel gc = (GatheringByteChannel) channel;
+                        for (int i = 0; i < n; ) {
+                            if (vs[i].hasRemaining()) {
+                                if (gc.write(vs, i, n - i) == 0L) {
+                                    r = false;
+                                    break;
+                                }
+                            } else {
+                                i++;
+                            }
+                        }
+                    } else {
+                        for (int i = 0; (i < n) && r; ++i) {
+                            java.nio.ByteBuffer v = vs[i];
+                            while (v.hasRemaining()) {
+                                if (channel.write(v) == 0) {
+                                    r = false;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    r = false;
+                } finally {
+                    for (int i = 0; i < n; ++i) {
+                        Block b = bs[i];
+                        java.nio.ByteBuffer v = vs[i];
+                        b.sent = v.hasRemaining() ? v.position() : b.skip(v.position(), b.end);
+                        if ((b.sent >= b.end) && (q || (i < n - 1))) {
+                            full.poll();
+                            recycle(b);
+                        }
+                        bs[i] = null;
+                        vs[i] = null;
+                    }
+                }
+                if (!r || !m) {
+                    return r && q && !t;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotate(Block block) {
+        if (block.section.disable()) {
+            full.add(block);
+            block.queued = true;
+            install(block);
+        }
+    }
+
+    private boolean install(Block block) {
+        if (active.get() != block) {
+            return true;
+        } else if (!block.queued) {
+            return true;
+        }
+        Block n = free.poll();
+        if (n != null) {
+            n.section.enable();
+            if (!active.compareAndSet(block, n)) {
+                n.section.disable();
+                free.add(n);
+            }
+            return true;
+        } else {
+            return active.get() != block;
+        }
+    }
+
+    private void recycle(Block block) {
+        block.clear();
+        block.queued = false;
+        if (active.get() == block) {
+            block.section.enable();
+        } else {
+            free.add(block);
+            Block a = active.get();
+            if (!a.section.isEnabled()) {
+                install(a);
+            }
+        }
+    }
+
+    private static final class Block extends BlockPadding2 {
+        final ThreadSection section;
+        final byte[] array;
+        final java.nio.ByteBuffer view;
+        volatile boolean queued;
+        volatile int level;
+        int sent;
+        int end;
+
+        Block(byte[] array) {
+            this.section = new ThreadSection(false);
+            this.array = array;
+            this.index = 0;
+            this.view = java.nio.ByteBuffer.wrap(array);
+            this.queued = false;
+            this.level = Integer.MAX_VALUE;
+            this.sent = 0;
+            this.end = 0;
+        }
+
+        int reserve(int recordLength) {
+            int al = array.length;
+            if (index + recordLength <= al) {
+                int bi = (int) INDEX.getAndAdd(this, recordLength);
+                if ((bi >= 0) && (bi + recordLength <= al) && (bi + recordLength > 0)) {
+                    return bi;
+                }
+            }
+            return -1;
+        }
+
+        boolean append(byte[] array, int offset, int length, int recordLength, Level level) {
+            int bi = reserve(recordLength);
+            if (bi >= 0) {
+                byte[] a = this.array;
+                setLength(bi, length);
+                System.arraycopy(array, offset, a, bi + RECORD_HEADER, length);
+                MARKER.setRelease(a, bi, RECORD_COMMITTED);
+                if (level != null) {
+                    mark(level.id);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        void commit(int position, int length, int size, Level level) {
+            byte[] a = array;
+            int g = length - size;
+            int p = position + RECORD_HEADER + size;
+            if (g >= RECORD_HEADER) {
+                setLength(p, g - RECORD_HEADER);
+                a[p] = RECORD_PADDING;
+            } else {
+                Arrays.fill(a, p, p + g, RECORD_SKIP);
+            }
+            setLength(position, size);
+            MARKER.setRelease(a, position, RECORD_COMMITTED);
+            if (level != null) {
+                mark(level.id);
+            }
+        }
+
+        void pad(int position, int length) {
+            setLength(position, length);
+            MARKER.setRelease(array, position, RECORD_PADDING);
+        }
+
+        void mark(int level) {
+            for (int l = this.level; level < l; l = this.level) {
+                if (LEVEL.compareAndSet(this, l, level)) {
+                    break;
+                }
+            }
+        }
+
+        int getCommitted(int from) {
+            byte[] a = array;
+            int e = Math.min(Math.max(index, 0), a.length);
+            int p = from;
+            while (p < e) {
+                byte k = (byte) MARKER.getAcquire(a, p);
+                if (k == RECORD_SKIP) {
+                    p++;
+                } else if (((k == RECORD_COMMITTED) || (k == RECORD_PADDING)) && (p + RECORD_HEADER <= e)) {
+                    p += RECORD_HEADER + getLength(p);
+                } else {
+                    break;
+                }
+            }
+            return p;
+        }
+
+        int getRun(int from, int to) {
+            return getRun(from, to, Long.MAX_VALUE);
+        }
+
+        int getRun(int from, int to, long length) {
+            int p = from;
+            while ((p < to) && (array[p] == RECORD_COMMITTED)) {
+                int n = p + RECORD_HEADER + getLength(p);
+                if (n - from > length) {
+                    break;
+                }
+                p = n;
+            }
+            return p;
+        }
+
+        int skip(int from, int to) {
+            byte[] a = array;
+            int p = from;
+            while (p < to) {
+                byte k = a[p];
+                if (k == RECORD_SKIP) {
+                    p++;
+                } else if (k == RECORD_PADDING) {
+                    p += RECORD_HEADER + getLength(p);
+                } else {
+                    break;
+                }
+            }
+            return p;
+        }
+
+        void write(OutputStream output, int from, int to) throws IOException {
+            for (int p = skip(from, to); p < to; ) {
+                int r = getRun(p, to);
+                output.write(array, p, r - p);
+                p = skip(r, to);
+            }
+        }
+
+        int getLength(int position) {
+            byte[] a = array;
+            return ((a[position + 1] & 0xFF) << 24) | ((a[position + 2] & 0xFF) << 16) | ((a[position + 3] & 0xFF) << 8) | (a[position + 4] & 0xFF);
+        }
+
+        void setLength(int position, int length) {
+            byte[] a = array;
+            a[position + 1] = (byte) (length >> 24);
+            a[position + 2] = (byte) (length >> 16);
+            a[position + 3] = (byte) (length >> 8);
+            a[position + 4] = (byte) length;
+        }
+
+        void clear() {
+            int i = index;
+            Arrays.fill(array, 0, ((i >= 0) && (i <= array.length)) ? i : array.length, RECORD_UNCOMMITTED);
+            index = 0;
+            level = Integer.MAX_VALUE;
+            sent = 0;
+            end = 0;
+        }
+    }
+
+    private static abstract class BlockPadding1 {
+        long p01, p02, p03, p04, p05, p06, p07, p08;
+    }
+
+    private static abstract class BlockIndex extends BlockPadding1 {
+        volatile int index;
+    }
+
+    private static abstract class BlockPadding2 extends BlockIndex {
+        long p11, p12, p13, p14, p15, p16, p17, p18;
     }
 }
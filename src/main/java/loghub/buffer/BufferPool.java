@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.Config;
+import loghub.config.Validator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of buffer backing memory. Released objects must already be reset by the caller,
+ * for byte buffers this means every byte a record was written to is {@link ByteBuffer#RECORD_UNCOMMITTED}.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class BufferPool<T> {
+    private static final ConcurrentHashMap<Integer, BufferPool<byte[]>> arrays = new ConcurrentHashMap<>(8);
+    private static final ConcurrentHashMap<Integer, BufferPool<java.nio.ByteBuffer>> directs = new ConcurrentHashMap<>(8);
+
+    private final Supplier<T> factory;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<T> objects;
+    private final AtomicInteger size;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder releasedCount;
+    private final LongAdder discardedCount;
+
+    public BufferPool(Supplier<T> factory, int capacity) {
+        Validator.notNull("factory", factory);
+        Validator.inRangeInt("capacity", capacity, 0, Integer.MAX_VALUE);
+
+        this.factory = factory;
+        this.capacity = capacity;
+        this.objects = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger(0);
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.releasedCount = new LongAdder();
+        this.discardedCount = new LongAdder();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getReleasedCount() {
+        return releasedCount.sum();
+    }
+
+    public long getDiscardedCount() {
+        return discardedCount.sum();
+    }
+
+    public T acquire() {
+        T o = objects.poll();
+        if (o != null) {
+            size.decrementAndGet();
+            hitCount.increment();
+            return o;
+        } else {
+            missCount.increment();
+            return factory.get();
+        }
+    }
+
+    public void release(T object) {
+        Validator.notNull("object", object);
+
+        for (int s = size.get(); s < capacity; s = size.get()) {
+            if (size.compareAndSet(s, s + 1)) {
+                objects.add(object);
+                releasedCount.increment();
+                return;
+            }
+        }
+        discardedCount.increment();
+    }
+
+    public void clear() {
+        for (T o = objects.poll(); o != null; o = objects.poll()) {
+            size.decrementAndGet();
+        }
+    }
+
+    public static BufferPool<byte[]> getArrays(int length) {
+        Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE);
+
+        return arrays.computeIfAbsent(length, l -> new BufferPool<>(() -> new byte[l], Config.LOGHUB_BUFFER_POOL));
+    }
+
+    public static BufferPool<java.nio.ByteBuffer> getDirects(int length) {
+        Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE);
+
+        return directs.computeIfAbsent(length, l -> new BufferPool<>(() -> java.nio.ByteBuffer.allocateDirect(l), Config.LOGHUB_BUFFER_POOL));
+    }
+}
@@ -17,15 +17,97 @@
 
 package loghub.buffer;
 
+import loghub.Buffer;
+import loghub.Codec;
+import loghub.Config;
+import loghub.Level;
+import loghub.Overflow;
+import loghub.config.Validator;
+
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
-public interface ByteBuffer {
+public interface ByteBuffer extends AutoCloseable {
+    public static final byte RECORD_UNCOMMITTED = 0;
+    public static final byte RECORD_COMMITTED = 1;
+    public static final byte RECORD_PADDING = 2;
+    public static final byte RECORD_SKIP = 3;
+    public static final int RECORD_HEADER = 5;
+
     public boolean isReady();
     public boolean append(byte[] array, int offset, int length);
+    public default boolean append(byte[] array, int offset, int length, Level level) {
+        return append(array, offset, length);
+    }
+    public default long evict(Level level) {
+        return 0L;
+    }
+    public default void reserve(Reservation reservation, int length) {
+        reservation.open();
+    }
+    public default boolean commit(Reservation reservation, Level level) {
+        ByteBuffer o = reservation.getOwner();
+        if ((o != null) && (o != this)) {
+            if (o.commit(reservation, level)) {
+                return true;
+            } else if (!reservation.isDetached()) {
+                return false;
+            }
+        }
+        reservation.detach();
+        return append(reservation.getArray(), reservation.getOffset(), reservation.getSize(), level);
+    }
+    public default void abort(Reservation reservation) {
+        ByteBuffer o = reservation.getOwner();
+        if ((o != null) && (o != this)) {
+            o.abort(reservation);
+        }
+        reservation.detach();
+    }
     public boolean send(OutputStream output);
+    public default boolean send(WritableByteChannel channel) {
+        return send(Channels.newOutputStream(channel));
+    }
     public void reset();
+    @Override
+    public default void close() {
+    }
+
+    public static ByteBuffer create() {
+        Buffer t = Config.LOGHUB_BUFFER;
+        Overflow o = Config.LOGHUB_BUFFER_OVERFLOW;
+        if (((o == Overflow.DROP_OLDEST) || (o == Overflow.LEVEL)) && ((t == Buffer.DISK) || (t == Buffer.DIRECT))) {
+            throw new IllegalArgumentException(String.format("Overflow '%s' is not supported by buffer '%s' because it cannot evict records", o, t));
+        }
+        ByteBuffer b = create(t, Config.LOGHUB_BUFFER_FILE, Config.LOGHUB_BUFFER_LENGTH);
+        if (Config.LOGHUB_BUFFER_CODEC != Codec.NONE) {
+            b = new CompressedByteBuffer(b, Config.LOGHUB_BUFFER_CODEC);
+        }
+        return new OverflowByteBuffer(b, o, Config.LOGHUB_BUFFER_OVERFLOW_TIMEOUT);
+    }
+
+    public static ByteBuffer create(Buffer buffer, String file, long length) {
+        Validator.notNull("buffer", buffer);
+
+        switch (buffer) {
+            case MEMORY:
+                return new ArrayByteBuffer(Validator.inRangeInt("length", (int) Math.min(length, Integer.MAX_VALUE), 0, Integer.MAX_VALUE));
+            case DISK:
+                return new FileByteBuffer(Validator.notNull("file", file), length);
+            case DIRECT:
+                return new DirectByteBuffer(Validator.inRangeInt("length", (int) Math.min(length, Integer.MAX_VALUE), 0, Integer.MAX_VALUE));
+            case TIERED:
+                return new TieredByteBuffer((int) Math.min(length, TieredByteBuffer.MEMORY_LENGTH), Validator.notNull("file", file), length);
+            case SEGMENTED:
+                return new SegmentByteBuffer(Validator.notNull("file", file), length, (int) Math.min(length, SegmentByteBuffer.SEGMENT_LENGTH),
+                                             Config.LOGHUB_BUFFER_DURABILITY, Config.LOGHUB_BUFFER_DURABILITY_INTERVAL, SegmentByteBuffer.GROUP_LENGTH);
+            default:
+                throw new IllegalArgumentException(String.format("Buffer '%s' is not supported", buffer));
+        }
+    }
 }
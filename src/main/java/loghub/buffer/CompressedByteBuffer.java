@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.buffer;
+
+import loghub.Codec;
+import loghub.Level;
+import loghub.config.Validator;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatInputException;
+import loghub.io.FormatInputStream;
+import loghub.io.Lz4;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses sent bytes block by block. Each block is written as
+ * {@code codec:byte raw-length:int compressed-length:int data}, so readers can skip blocks
+ * without decompressing them.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class CompressedByteBuffer implements ByteBuffer {
+    public static final int BLOCK_LENGTH = 64 * 1024;
+    public static final int BLOCK_HEADER = 9;
+
+    private final Object lock;
+    private final ByteBuffer buffer;
+    private final Codec codec;
+    private final int blockLength;
+    private final byte[] dictionary;
+    private final byte[] raw;
+    private final byte[] compressed;
+    private final Lz4 lz4;
+    private final Deflater deflater;
+    private final BlockOutputStream blocks;
+    private int rawLength;
+    private boolean closed;
+
+    public CompressedByteBuffer(ByteBuffer buffer, Codec codec) {
+        this(buffer, codec, BLOCK_LENGTH, null);
+    }
+
+    public CompressedByteBuffer(ByteBuffer buffer, Codec codec, int blockLength, byte[] dictionary) {
+        Validator.notNull("buffer", buffer);
+        Validator.notNull("codec", codec);
+        Validator.inRangeInt("blockLength", blockLength, 1, 1 << 24);
+
+        this.lock = new Object();
+        this.buffer = buffer;
+        this.codec = codec;
+        this.blockLength = blockLength;
+        this.dictionary = dictionary;
+        this.raw = new byte[blockLength];
+        this.compressed = new byte[BLOCK_HEADER + Lz4.maxCompressedLength(blockLength) + 64];
+        this.lz4 = (codec == Codec.LZ4) ? new Lz4() : null;
+        this.deflater = (codec == Codec.DEFLATE) ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.blocks = new BlockOutputStream();
+        this.rawLength = 0;
+        this.closed = false;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    @Override
+    public boolean isReady() {
+        return buffer.isReady();
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        return buffer.append(array, offset, length);
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length, Level level) {
+        return buffer.append(array, offset, length, level);
+    }
+
+    @Override
+    public long evict(Level level) {
+        return buffer.evict(level);
+    }
+
+    @Override
+    public void reserve(Reservation reservation, int length) {
+        buffer.reserve(reservation, length);
+    }
+
+    @Override
+    public boolean commit(Reservation reservation, Level level) {
+        return buffer.commit(reservation, level);
+    }
+
+    @Override
+    public void abort(Reservation reservation) {
+        buffer.abort(reservation);
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        Validator.notNull("output", output);
+
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+            BlockOutputStream b = blocks;
+            b.output = output;
+            try {
+                if (rawLength > 0) {
+                    b.flush();
+                }
+                return buffer.send(b);
+            } catch (IOException e) {
+                return false;
+            } finally {
+                b.output = null;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (lock) {
+            buffer.reset();
+            rawLength = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.close();
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    public static int readBlock(FormatInputStream input, byte[] dictionary, ArrayOutputStream output) throws IOException {
+        Validator.notNull("input", input);
+        Validator.notNull("output", output);
+
+        long s = input.getSize();
+        byte cid = input.readByte();
+        Codec c = Codec.get(cid);
+        int rl = input.readInt();
+        int cl = input.readInt();
+        if ((c == null) || (rl < 0) || (cl < 0)) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal block header codec=%d, raw=%d, compressed=%d", s, cid, rl, cl));
+        }
+        byte[] cs = new byte[cl];
+        readFully(input, cs);
+        if (c == Codec.NONE) {
+            if (cl != rl) {
+                throw new FormatInputException(String.format("Illegal format at size %d: raw block length %d differs from %d", s, cl, rl));
+            }
+            output.write(cs, 0, cl);
+        } else {
+            byte[] rs = new byte[rl];
+            int n;
+            if (c == Codec.LZ4) {
+                n = Lz4.decompress(cs, 0, cl, rs, 0, rl);
+            } else {
+                Inflater i = new Inflater();
+                try {
+                    i.setInput(cs, 0, cl);
+                    n = i.inflate(rs, 0, rl);
+                    if ((n == 0) && i.needsDictionary()) {
+                        if (dictionary == null) {
+                            throw new FormatInputException(String.format("Illegal format at size %d: block requires a preset dictionary", s));
+                        }
+                        i.setDictionary(dictionary);
+                        n = i.inflate(rs, 0, rl);
+                    }
+                } catch (DataFormatException e) {
+                    throw new FormatInputException(String.format("Illegal format at size %d: %s", s, e.getMessage()), e);
+                } finally {
+                    i.end();
+                }
+            }
+            if (n != rl) {
+                throw new FormatInputException(String.format("Illegal format at size %d: block decompressed to %d instead of %d bytes", s, n, rl));
+            }
+            output.write(rs, 0, rl);
+        }
+        return rl;
+    }
+
+    public static int skipBlock(FormatInputStream input) throws IOException {
+        Validator.notNull("input", input);
+
+        input.readByte();
+        int rl = input.readInt();
+        int cl = input.readInt();
+        for (long l = cl; l > 0L; ) {
+            long n = input.skip(l);
+            if (n > 0L) {
+                l -= n;
+            } else {
+                input.readByte();
+                l--;
+            }
+        }
+        return rl;
+    }
+
+    private static void readFully(FormatInputStream input, byte[] array) throws IOException {
+        for (int p = 0; p < array.length; ) {
+            int n = input.read(array, p, array.length - p);
+            if (n < 0) {
+                throw new FormatInputException("End of input stream reached");
+            }
+            p += n;
+        }
+    }
+
+    private void writeBlock(OutputStream output) throws IOException {
+        byte[] r = raw;
+        byte[] c = compressed;
+        int rl = rawLength;
+        int cl = -1;
+        Codec cd = codec;
+        if (cd == Codec.LZ4) {
+            cl = lz4.compress(r, 0, rl, c, BLOCK_HEADER);
+        } else if (cd == Codec.DEFLATE) {
+            Deflater d = deflater;
+            d.reset();
+            if (dictionary != null) {
+                d.setDictionary(dictionary);
+            }
+            d.setInput(r, 0, rl);
+            d.finish();
+            int n = d.deflate(c, BLOCK_HEADER, c.length - BLOCK_HEADER);
+            cl = d.finished() ? n : -1;
+        }
+        if ((cl < 0) || (cl >= rl)) {
+            cd = Codec.NONE;
+            cl = rl;
+            System.arraycopy(r, 0, c, BLOCK_HEADER, rl);
+        }
+        c[0] = cd.id;
+        c[1] = (byte) (rl >> 24);
+        c[2] = (byte) (rl >> 16);
+        c[3] = (byte) (rl >> 8);
+        c[4] = (byte) (rl);
+        c[5] = (byte) (cl >> 24);
+        c[6] = (byte) (cl >> 16);
+        c[7] = (byte) (cl >> 8);
+        c[8] = (byte) (cl);
+        output.write(c, 0, BLOCK_HEADER + cl);
+        rawLength = 0;
+    }
+
+    private final class BlockOutputStream extends OutputStream {
+        OutputStream output;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (rawLength == raw.length) {
+                writeBlock(output);
+            }
+            raw[rawLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int r = rawLength;
+            try {
+                while (len > 0) {
+                    if (rawLength == raw.length) {
+                        writeBlock(output);
+                        r = 0;
+                    }
+                    int n = Math.min(len, raw.length - rawLength);
+                    System.arraycopy(b, off, raw, rawLength, n);
+                    rawLength += n;
+                    off += n;
+                    len -= n;
+                }
+            } catch (IOException | RuntimeException e) {
+                rawLength = r;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (rawLength > 0) {
+                writeBlock(output);
+            }
+            output.flush();
+        }
+    }
+}
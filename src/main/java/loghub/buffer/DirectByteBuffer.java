@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.buffer;
+
+import loghub.concurrent.ThreadSection;
+import loghub.config.Validator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class DirectByteBuffer extends DirectByteBufferPadding2 implements ByteBuffer {
+    private static final int TRANSFER_LENGTH = 64 * 1024;
+    private static final byte[] ZERO = new byte[TRANSFER_LENGTH];
+    private static final VarHandle INDEX;
+
+    static {
+        try {
+            INDEX = MethodHandles.lookup().findVarHandle(DirectByteBufferIndex.class, "index", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object lock;
+    private final BufferPool<java.nio.ByteBuffer> pool;
+    private final int length;
+    private final ThreadSection section;
+    private final java.nio.ByteBuffer memory;
+    private final java.nio.ByteBuffer view;
+    private final ThreadLocal<java.nio.ByteBuffer> views;
+    private final byte[] transfer;
+    private int sent;
+    private boolean closed;
+
+    public DirectByteBuffer(int length) {
+        this(length, null);
+    }
+
+    public DirectByteBuffer(int length, BufferPool<java.nio.ByteBuffer> pool) {
+        Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE);
+
+        BufferPool<java.nio.ByteBuffer> p = (pool != null) ? pool : BufferPool.getDirects(length);
+        java.nio.ByteBuffer m = p.acquire();
+        if (!m.isDirect() || (m.capacity() != length)) {
+            throw new IllegalArgumentException(String.format("Pool buffer capacity %d is not equal to length %d or buffer is not direct", m.capacity(), length));
+        }
+
+        this.lock = new Object();
+        this.pool = p;
+        this.length = length;
+        this.section = new ThreadSection(true);
+        this.memory = m;
+        this.view = m.duplicate();
+        this.views = ThreadLocal.withInitial(m::duplicate);
+        this.transfer = new byte[TRANSFER_LENGTH];
+        this.index = 0;
+        this.sent = 0;
+        this.closed = false;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public BufferPool<java.nio.ByteBuffer> getPool() {
+        return pool;
+    }
+
+    public int getIndex() {
+        int i = index;
+        return ((i >= 0) && (i <= length)) ? i : length;
+    }
+
+    @Override
+    public boolean isReady() {
+        return section.isEnabled();
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        int l = length + RECORD_HEADER;
+        if ((l > 0) && (l <= this.length) && section.enter()) {
+            try {
+                if (index + l <= this.length) {
+                    int b = (int) INDEX.getAndAdd(this, l);
+                    if ((b >= 0) && (b + l <= this.length) && (b + l > 0)) {
+                        write(b, array, offset, length);
+                        return true;
+                    } else if ((b >= 0) && (b < this.length)) {
+                        skip(b);
+                    }
+                }
+            } finally {
+                section.leave();
+            }
+            section.disable();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        synchronized (lock) {
+            try {
+                int e = getIndex();
+                int s = sent;
+                int c = getCommitted(s);
+                if (c > s) {
+                    java.nio.ByteBuffer v = view;
+                    byte[] t = transfer;
+                    v.clear();
+                    v.position(s);
+                    for (int p = s; p < c; ) {
+                        int n = Math.min(c - p, t.length);
+                        v.get(t, 0, n);
+                        output.write(t, 0, n);
+                        p += n;
+                        sent = p;
+                    }
+                }
+                output.flush();
+                return isEnd(c, e);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public boolean send(WritableByteChannel channel) {
+        synchronized (lock) {
+            int e = getIndex();
+            int s = sent;
+            int c = getCommitted(s);
+            java.nio.ByteBuffer v = view;
+            v.clear();
+            v.position(s);
+            v.limit(c);
+            try {
+                while (v.hasRemaining()) {
+                    if (channel.write(v) == 0) {
+                        return false;
+                    }
+                }
+                return isEnd(c, e);
+            } catch (IOException ex) {
+                return false;
+            } finally {
+                sent = v.position();
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (lock) {
+            if (!closed) {
+                section.disable();
+                section.await();
+                clear();
+                section.enable();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (!closed) {
+                closed = true;
+                section.disable();
+                section.await();
+                clear();
+                pool.release(memory);
+            }
+        }
+    }
+
+    private void clear() {
+        java.nio.ByteBuffer v = view;
+        byte[] z = ZERO;
+        int e = getIndex();
+        v.clear();
+        for (int p = 0; p < e; ) {
+            int n = Math.min(e - p, z.length);
+            v.put(z, 0, n);
+            p += n;
+        }
+        index = 0;
+        sent = 0;
+    }
+
+    private void write(int position, byte[] array, int offset, int length) {
+        java.nio.ByteBuffer v = views.get();
+        v.putInt(position + 1, length);
+        v.clear();
+        v.position(position + RECORD_HEADER);
+        v.put(array, offset, length);
+        VarHandle.releaseFence();
+        v.put(position, RECORD_COMMITTED);
+    }
+
+    private void skip(int position) {
+        java.nio.ByteBuffer v = views.get();
+        VarHandle.releaseFence();
+        v.put(position, RECORD_SKIP);
+    }
+
+    private boolean isEnd(int position, int end) {
+        if (position >= end) {
+            return true;
+        }
+        byte k = memory.get(position);
+        VarHandle.acquireFence();
+        return k == RECORD_SKIP;
+    }
+
+    private int getCommitted(int from) {
+        java.nio.ByteBuffer m = memory;
+        int e = getIndex();
+        int p = from;
+        while (p + RECORD_HEADER <= e) {
+            byte k = m.get(p);
+            VarHandle.acquireFence();
+            if (k != RECORD_COMMITTED) {
+                break;
+            }
+            p += RECORD_HEADER + m.getInt(p + 1);
+        }
+        return p;
+    }
+}
+
+abstract class DirectByteBufferPadding1 {
+    long p01, p02, p03, p04, p05, p06, p07, p08;
+}
+
+abstract class DirectByteBufferIndex extends DirectByteBufferPadding1 {
+    volatile int index;
+}
+
+abstract class DirectByteBufferPadding2 extends DirectByteBufferIndex {
+    long p11, p12, p13, p14, p15, p16, p17, p18;
+}
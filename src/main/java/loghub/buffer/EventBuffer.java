@@ -17,9 +17,556 @@
 
 package loghub.buffer;
 
+import loghub.Config;
+import loghub.Input;
+import loghub.Level;
+import loghub.Tag;
+import loghub.Type;
+import loghub.config.Validator;
+import loghub.connector.Connector;
+import loghub.connector.EventBatch;
+import loghub.event.EventInfo;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
-public final class EventBuffer {
+public final class EventBuffer implements Connector {
+    public static final byte RECORD_EVENT = 1;
+    public static final byte RECORD_DICTIONARY = 2;
+    public static final byte RECORD_META = 3;
+    public static final byte RECORD_DATA = 4;
+    public static final byte RECORD_INFO = 5;
+
+    private static final int ESTIMATE = 256;
+
+    private final Object lock;
+    private final ByteBuffer buffer;
+    private final EventDictionaryBuffer dictionary;
+    private final EventMetaBuffer meta;
+    private final int capacity;
+    private final int block;
+    private final ThreadLocal<Encoder> encoder;
+    private final ThreadLocal<Block> blocks;
+    private final LongAdder totalCount;
+    private final LongAdder totalSize;
+    private final LongAdder lostCount;
+    private final LongAdder lostSize;
+    private final ArrayOutputStream infoArray;
+    private final FormatOutputStream infoOutput;
+    private long infoNumber;
+    private long infoTotalCount;
+    private long infoLostCount;
+    private long sentCount;
+    private long sentSize;
+
+    public EventBuffer(ByteBuffer buffer, int capacity) {
+        this(buffer, null, capacity);
+    }
+
+    public EventBuffer(ByteBuffer buffer, EventDictionaryBuffer dictionary, int capacity) {
+        this(buffer, dictionary, null, capacity);
+    }
+
+    public EventBuffer(ByteBuffer buffer, EventDictionaryBuffer dictionary, EventMetaBuffer meta, int capacity) {
+        this(buffer, dictionary, meta, capacity, Config.LOGHUB_BUFFER_BLOCK);
+    }
+
+    public EventBuffer(ByteBuffer buffer, EventDictionaryBuffer dictionary, EventMetaBuffer meta, int capacity, int block) {
+        Validator.notNull("buffer", buffer);
+        Validator.inRangeInt("capacity", capacity, 0, Integer.MAX_VALUE);
+        Validator.inRangeInt("block", block, 0, 1 << 20);
+
+        this.lock = new Object();
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.meta = meta;
+        this.capacity = capacity;
+        this.block = block;
+        this.encoder = ThreadLocal.withInitial(() -> new Encoder(capacity));
+        this.blocks = (block > 0) ? ThreadLocal.withInitial(() -> new Block(block)) : null;
+        this.totalCount = new LongAdder();
+        this.totalSize = new LongAdder();
+        this.lostCount = new LongAdder();
+        this.lostSize = new LongAdder();
+        this.infoArray = new ArrayOutputStream(64, Integer.MAX_VALUE);
+        this.infoOutput = new FormatOutputStream(infoArray);
+        this.infoNumber = 0L;
+        this.infoTotalCount = 0L;
+        this.infoLostCount = 0L;
+        this.sentCount = 0L;
+        this.sentSize = 0L;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public EventDictionaryBuffer getDictionary() {
+        return dictionary;
+    }
+
+    public EventMetaBuffer getMeta() {
+        return meta;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getBlock() {
+        return block;
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getTotalSize() {
+        return totalSize.sum();
+    }
+
+    public long getSentCount() {
+        synchronized (lock) {
+            return sentCount;
+        }
+    }
+
+    public long getSentSize() {
+        synchronized (lock) {
+            return sentSize;
+        }
+    }
+
+    public long getLostCount() {
+        return lostCount.sum();
+    }
+
+    public long getLostSize() {
+        return lostSize.sum();
+    }
+
+    @Override
+    public String getInfo() {
+        return String.format("buffer=%s, dictionary=%b, meta=%b, capacity=%d, block=%d", buffer.getClass().getSimpleName(), dictionary != null, meta != null, capacity, block);
+    }
+
+    public boolean send(OutputStream output) {
+        synchronized (lock) {
+            EventMetaBuffer m = meta;
+            EventDictionaryBuffer d = dictionary;
+            long tc = totalCount.sum();
+            long ts = totalSize.sum();
+            appendInfo(tc, ts);
+            boolean mp = (m != null) && m.pause();
+            boolean dp = (d != null) && d.pause();
+            try {
+                if (((m == null) || m.send(output)) &&
+                    ((d == null) || d.send(output)) &&
+                    buffer.send(output)) {
+                    sentCount = tc;
+                    sentSize = ts;
+                    return true;
+                } else {
+                    return false;
+                }
+            } finally {
+                if (dp) {
+                    d.resume();
+                }
+                if (mp) {
+                    m.resume();
+                }
+            }
+        }
+    }
+
+    public void reset() {
+        synchronized (lock) {
+            EventMetaBuffer m = meta;
+            EventDictionaryBuffer d = dictionary;
+            buffer.reset();
+            if (d != null) {
+                d.reset();
+            }
+            if (m != null) {
+                m.reset();
+            }
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, 0, param1, 0L);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, 0, param1, 0L, param2, 0L);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, 0, param1, 0L, param2, 0L, param3, 0L);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3, Object param4) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, 0, param1, 0L, param2, 0L, param3, 0L, param4, 0L);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void log(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3, Object param4, Object param5) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, 0, param1, 0L, param2, 0L, param3, 0L, param4, 0L, param5, 0L);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logPrimitive(long time, long number, Input input,
+                             String clazz, String method, String statement, String file, int line,
+                             Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                             String message, int kinds, Object param1, long value1) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, kinds, param1, value1);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logPrimitive(long time, long number, Input input,
+                             String clazz, String method, String statement, String file, int line,
+                             Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                             String message, int kinds, Object param1, long value1, Object param2, long value2) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, kinds, param1, value1, param2, value2);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logPrimitive(long time, long number, Input input,
+                             String clazz, String method, String statement, String file, int line,
+                             Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                             String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, kinds, param1, value1, param2, value2, param3, value3);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logPrimitive(long time, long number, Input input,
+                             String clazz, String method, String statement, String file, int line,
+                             Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                             String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, kinds, param1, value1, param2, value2, param3, value3, param4, value4);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logPrimitive(long time, long number, Input input,
+                             String clazz, String method, String statement, String file, int line,
+                             Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                             String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) {
+        Encoder e = encoder.get();
+        try {
+            FormatOutputStream o = e.begin(buffer);
+            writeEvent(o, dictionary, meta, time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags);
+            o.writeString(message, kinds, param1, value1, param2, value2, param3, value3, param4, value4, param5, value5);
+            append(e, level);
+        } catch (IOException | RuntimeException ex) {
+            lose(e);
+        } finally {
+            e.end(buffer);
+        }
+    }
+
+    @Override
+    public void logBatch(EventBatch batch) {
+        if (blocks == null) {
+            Connector.super.logBatch(batch);
+            return;
+        }
+        Block b = blocks.get();
+        EventDataBuffer d = b.data;
+        for (int i = 0, ci = batch.getSize(); i < ci; ++i) {
+            try {
+                b.indices[d.add(batch, i)] = i;
+            } catch (RuntimeException e) {
+                String m = batch.messages[i];
+                lostCount.increment();
+                lostSize.add((m != null) ? m.length() : 0L);
+            }
+            if (d.isFull()) {
+                append(b, batch);
+            }
+        }
+        if (!d.isEmpty()) {
+            append(b, batch);
+        }
+    }
+
+    @Override
+    public void suppress(long count, long size) {
+        lostCount.add(count);
+        lostSize.add(size);
+    }
+
+    @Override
+    public void collect(String metric, long count, long value, int precision, String unit) {
+    }
+
+    private void appendInfo(long totalCount, long totalSize) {
+        long lc = lostCount.sum();
+        if ((totalCount != infoTotalCount) || (lc != infoLostCount)) {
+            ArrayOutputStream a = infoArray;
+            a.reset();
+            try {
+                infoOutput.writeByte(RECORD_INFO);
+                new EventInfo(infoNumber, 0, totalCount, totalSize, sentCount, sentSize, lc, lostSize.sum()).write(infoOutput);
+            } catch (IOException e) {
+                return;
+            }
+            if (buffer.append(a.getArray(), 0, a.getSize())) {
+                infoNumber++;
+                infoTotalCount = totalCount;
+                infoLostCount = lc;
+            }
+        }
+    }
+
+    private void append(Block block, EventBatch batch) {
+        EventDataBuffer d = block.data;
+        try {
+            if (d.append(buffer)) {
+                totalCount.add(d.getSize());
+                totalSize.add(d.getLength());
+            } else {
+                int[] is = block.indices;
+                for (int i = 0, ci = d.getSize(); i < ci; ++i) {
+                    batch.log(is[i], this);
+                }
+            }
+        } finally {
+            d.clear();
+        }
+    }
+
+    private void append(Encoder encoder, Level level) {
+        Reservation r = encoder.reservation;
+        int s = r.getSize();
+        encoder.estimate(s);
+        if (buffer.commit(r, level)) {
+            totalCount.increment();
+            totalSize.add(s);
+        } else {
+            lostCount.increment();
+            lostSize.add(s);
+        }
+    }
+
+    private void lose(Encoder encoder) {
+        lostCount.increment();
+        lostSize.add(encoder.reservation.getSize());
+    }
+
+    private static void writeEvent(FormatOutputStream output, EventDictionaryBuffer dictionary, EventMetaBuffer meta, long time, long number, Input input,
+                                   String clazz, String method, String statement, String file, int line,
+                                   Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags) throws IOException {
+        output.writeByte(RECORD_EVENT);
+        output.writeLong(time);
+        output.writeLong(number);
+        if (meta != null) {
+            meta.writeSite(output, input, clazz, method, statement, file, line);
+        } else if (dictionary != null) {
+            output.writeByte(input.id);
+            dictionary.writeString(output, clazz);
+            dictionary.writeString(output, method);
+            dictionary.writeString(output, statement);
+            dictionary.writeString(output, file);
+            output.writeInt(line);
+        } else {
+            output.writeByte(input.id);
+            output.writeStringRef(clazz);
+            output.writeStringRef(method);
+            output.writeStringRef(statement);
+            output.writeStringRef(file);
+            output.writeInt(line);
+        }
+        output.writeByte(level.id);
+        if (dictionary != null) {
+            dictionary.writeString(output, logger);
+        } else {
+            output.writeString(logger);
+        }
+        output.writeByte(type.id);
+        if (exception != null) {
+            output.writeByte((byte) 1);
+            if (dictionary != null) {
+                dictionary.writeString(output, exception.getClass().getName());
+            } else {
+                output.writeString(exception.getClass().getName());
+            }
+            output.writeStringRef(exception.getMessage());
+        } else {
+            output.writeByte((byte) 0);
+        }
+        output.writeTagRef(tag);
+        output.writeTagArrayRef(tags);
+    }
+
+    private static final class Block {
+        final EventDataBuffer data;
+        final int[] indices;
+
+        Block(int capacity) {
+            this.data = new EventDataBuffer(capacity);
+            this.indices = new int[capacity];
+        }
+    }
+
+    private static final class Encoder {
+        final Reservation reservation;
+        int estimate;
+
+        Encoder(int capacity) {
+            this.reservation = new Reservation(capacity);
+            this.estimate = ESTIMATE;
+        }
+
+        FormatOutputStream begin(ByteBuffer buffer) {
+            end(buffer);
+            buffer.reserve(reservation, estimate);
+            return reservation.getOutput();
+        }
+
+        void estimate(int size) {
+            int e = estimate;
+            estimate = (size > e) ? size + (size >> 2) : e - ((e - size) >> 4);
+        }
+
+        void end(ByteBuffer buffer) {
+            if (!reservation.isDetached()) {
+                buffer.abort(reservation);
+            }
+        }
+    }
 }
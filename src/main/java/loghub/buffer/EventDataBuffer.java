@@ -14,12 +14,752 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package loghub.buffer;
 
+import loghub.Input;
+import loghub.Level;
+import loghub.Tag;
+import loghub.Type;
+import loghub.config.Validator;
+import loghub.connector.EventBatch;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatInputException;
+import loghub.io.FormatInputStream;
+import loghub.io.FormatOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
+ * Block of events stored by column. Serialized layout:
+ * <pre>
+ * block     = version:byte count:varint columns:varint (column:byte length:varint)* data*
+ * TIME      = first:long (delta-of-delta:zigzag-varlong)*
+ * NUMBER    = first:long (delta:zigzag-varlong)*
+ * INPUT     = packed
+ * LEVEL     = packed
+ * TYPE      = packed
+ * LOGGER    = names:varint (name:string-ref)* packed
+ * MESSAGE   = heap
+ * SITE      = sites:varint (class:string-ref method:string-ref statement:string-ref file:string-ref line:varint)* packed
+ * EXCEPTION = heap of (class:string message:string-ref), empty entry for no exception
+ * TAG       = heap of (tag:tag-ref tags:tag-array-ref), empty entry for no tags
+ * packed    = width:byte bits:byte*
+ * heap      = (length:varint)* bytes:byte*
+ * </pre>
+ *
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class EventDataBuffer {
+    public static final byte VERSION = 1;
+    public static final byte COLUMN_TIME = 1;
+    public static final byte COLUMN_NUMBER = 2;
+    public static final byte COLUMN_INPUT = 3;
+    public static final byte COLUMN_LEVEL = 4;
+    public static final byte COLUMN_TYPE = 5;
+    public static final byte COLUMN_LOGGER = 6;
+    public static final byte COLUMN_MESSAGE = 7;
+    public static final byte COLUMN_SITE = 8;
+    public static final byte COLUMN_EXCEPTION = 9;
+    public static final byte COLUMN_TAG = 10;
+
+    private static final int COLUMNS = 10;
+
+    private final long[] times;
+    private final long[] numbers;
+    private final int[] inputs;
+    private final int[] levels;
+    private final int[] types;
+    private final int[] loggers;
+    private final int[] sites;
+    private final String[] names;
+    private final int[] nameSlots;
+    private final String[] siteClasses;
+    private final String[] siteMethods;
+    private final String[] siteStatements;
+    private final String[] siteFiles;
+    private final int[] siteLines;
+    private final int[] siteSlots;
+    private final Heap messages;
+    private final Heap exceptions;
+    private final Heap tags;
+    private final ArrayOutputStream column;
+    private final FormatOutputStream columnOutput;
+    private final ArrayOutputStream block;
+    private final FormatOutputStream blockOutput;
+    private final int[] columnEnds;
+    private final byte[] transfer;
+    private int size;
+    private int nameCount;
+    private int siteCount;
+
+    public EventDataBuffer(int capacity) {
+        Validator.inRangeInt("capacity", capacity, 1, 1 << 20);
+
+        this.times = new long[capacity];
+        this.numbers = new long[capacity];
+        this.inputs = new int[capacity];
+        this.levels = new int[capacity];
+        this.types = new int[capacity];
+        this.loggers = new int[capacity];
+        this.sites = new int[capacity];
+        this.names = new String[capacity];
+        this.nameSlots = new int[Integer.highestOneBit(capacity) << 2];
+        this.siteClasses = new String[capacity];
+        this.siteMethods = new String[capacity];
+        this.siteStatements = new String[capacity];
+        this.siteFiles = new String[capacity];
+        this.siteLines = new int[capacity];
+        this.siteSlots = new int[Integer.highestOneBit(capacity) << 2];
+        this.messages = new Heap(capacity);
+        this.exceptions = new Heap(capacity);
+        this.tags = new Heap(capacity);
+        this.column = new ArrayOutputStream(4096, Integer.MAX_VALUE);
+        this.columnOutput = new FormatOutputStream(column);
+        this.block = new ArrayOutputStream(4096, Integer.MAX_VALUE);
+        this.blockOutput = new FormatOutputStream(block);
+        this.columnEnds = new int[COLUMNS];
+        this.transfer = new byte[4096];
+        this.size = 0;
+        this.nameCount = 0;
+        this.siteCount = 0;
+    }
+
+    public int getCapacity() {
+        return times.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getLength() {
+        return block.getSize();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == times.length;
+    }
+
+    public long getTime(int index) {
+        return times[check(index)];
+    }
+
+    public long getNumber(int index) {
+        return numbers[check(index)];
+    }
+
+    public Input getInput(int index) {
+        return Input.get((byte) inputs[check(index)]);
+    }
+
+    public String getClazz(int index) {
+        return siteClasses[sites[check(index)]];
+    }
+
+    public String getMethod(int index) {
+        return siteMethods[sites[check(index)]];
+    }
+
+    public String getStatement(int index) {
+        return siteStatements[sites[check(index)]];
+    }
+
+    public String getFile(int index) {
+        return siteFiles[sites[check(index)]];
+    }
+
+    public int getLine(int index) {
+        return siteLines[sites[check(index)]];
+    }
+
+    public Level getLevel(int index) {
+        return Level.get((byte) levels[check(index)]);
+    }
+
+    public String getLogger(int index) {
+        return names[loggers[check(index)]];
+    }
+
+    public Type getType(int index) {
+        return Type.get((byte) types[check(index)]);
+    }
+
+    public String getExceptionClass(int index) {
+        Heap h = exceptions;
+        if (h.isEmpty(check(index))) {
+            return null;
+        }
+        try {
+            return h.getInput(index).readString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getExceptionMessage(int index) {
+        Heap h = exceptions;
+        if (h.isEmpty(check(index))) {
+            return null;
+        }
+        try {
+            FormatInputStream i = h.getInput(index);
+            i.readString();
+            return i.readStringRef();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Tag getTag(int index) {
+        Heap h = tags;
+        if (h.isEmpty(check(index))) {
+            return null;
+        }
+        try {
+            return h.getInput(index).readTagRef();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Tag[] getTags(int index) {
+        Heap h = tags;
+        if (h.isEmpty(check(index))) {
+            return null;
+        }
+        try {
+            FormatInputStream i = h.getInput(index);
+            i.readTagRef();
+            return i.readTagArrayRef();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getMessage(int index) {
+        try {
+            return messages.getInput(check(index)).readString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int add(EventBatch batch, int index) {
+        Validator.notNull("batch", batch);
+        Validator.inRangeInt("index", index, 0, batch.getSize() - 1);
+
+        int i = size;
+        if (i < times.length) {
+            Heap mh = messages;
+            Heap eh = exceptions;
+            Heap th = tags;
+            int ms = mh.getSize();
+            int es = eh.getSize();
+            int ts = th.getSize();
+            try {
+                writeMessage(batch, index);
+                writeException(batch.exceptions[index]);
+                writeTags(batch.tags[index], batch.tagArrays[index]);
+            } catch (IOException | RuntimeException e) {
+                mh.truncate(ms);
+                eh.truncate(es);
+                th.truncate(ts);
+                throw (e instanceof RuntimeException) ? (RuntimeException) e : new IllegalStateException(e);
+            }
+            times[i] = batch.times[index];
+            numbers[i] = batch.numbers[index];
+            inputs[i] = batch.inputs[index].id;
+            levels[i] = batch.levels[index].id;
+            types[i] = batch.types[index].id;
+            loggers[i] = name(batch.loggers[index]);
+            sites[i] = site(batch.classes[index], batch.methods[index], batch.statements[index], batch.files[index], batch.lines[index]);
+            mh.end(i);
+            eh.end(i);
+            th.end(i);
+            size = i + 1;
+            return i;
+        } else {
+            return -1;
+        }
+    }
+
+    public int addAll(EventBatch batch) {
+        Validator.notNull("batch", batch);
+
+        int n = 0;
+        for (int i = 0, ci = batch.getSize(); (i < ci) && !isFull(); ++i) {
+            add(batch, i);
+            n++;
+        }
+        return n;
+    }
+
+    public void write(FormatOutputStream output) throws IOException {
+        Validator.notNull("output", output);
+
+        int s = size;
+        ArrayOutputStream c = column;
+        FormatOutputStream co = columnOutput;
+        int[] ce = columnEnds;
+        c.reset();
+        if (s > 0) {
+            co.writeLong(times[0]);
+            long pd = 0L;
+            for (int i = 1; i < s; ++i) {
+                long d = times[i] - times[i - 1];
+                co.writeVarLong(zigzag(d - pd));
+                pd = d;
+            }
+        }
+        ce[0] = c.getSize();
+        if (s > 0) {
+            co.writeLong(numbers[0]);
+            for (int i = 1; i < s; ++i) {
+                co.writeVarLong(zigzag(numbers[i] - numbers[i - 1]));
+            }
+        }
+        ce[1] = c.getSize();
+        writePacked(co, inputs, s);
+        ce[2] = c.getSize();
+        writePacked(co, levels, s);
+        ce[3] = c.getSize();
+        writePacked(co, types, s);
+        ce[4] = c.getSize();
+        co.writeVarInt(nameCount);
+        for (int i = 0, ci = nameCount; i < ci; ++i) {
+            co.writeStringRef(names[i]);
+        }
+        writePacked(co, loggers, s);
+        ce[5] = c.getSize();
+        messages.write(co, s);
+        ce[6] = c.getSize();
+        co.writeVarInt(siteCount);
+        for (int i = 0, ci = siteCount; i < ci; ++i) {
+            co.writeStringRef(siteClasses[i]);
+            co.writeStringRef(siteMethods[i]);
+            co.writeStringRef(siteStatements[i]);
+            co.writeStringRef(siteFiles[i]);
+            co.writeVarInt(siteLines[i]);
+        }
+        writePacked(co, sites, s);
+        ce[7] = c.getSize();
+        exceptions.write(co, s);
+        ce[8] = c.getSize();
+        tags.write(co, s);
+        ce[9] = c.getSize();
+
+        output.writeVersion(VERSION);
+        output.writeVarInt(s);
+        output.writeVarInt(COLUMNS);
+        for (int i = 0, p = 0; i < COLUMNS; ++i) {
+            output.writeByte((byte) (COLUMN_TIME + i));
+            output.writeVarInt(ce[i] - p);
+            p = ce[i];
+        }
+        output.write(c.getArray(), 0, c.getSize());
+    }
+
+    public boolean append(ByteBuffer buffer) {
+        Validator.notNull("buffer", buffer);
+
+        ArrayOutputStream b = block;
+        b.reset();
+        try {
+            blockOutput.writeByte(EventBuffer.RECORD_DATA);
+            write(blockOutput);
+        } catch (IOException e) {
+            return false;
+        }
+        int l = Integer.MAX_VALUE;
+        for (int i = 0, ci = size; i < ci; ++i) {
+            l = Math.min(l, levels[i]);
+        }
+        return buffer.append(b.getArray(), 0, b.getSize(), (size > 0) ? Level.get((byte) l) : null);
+    }
+
+    public void read(FormatInputStream input) throws IOException {
+        Validator.notNull("input", input);
+
+        clear();
+        long sb = input.getSize();
+        int s = readHeader(input);
+        if (s > times.length) {
+            throw new FormatInputException(String.format("Illegal format at size %d: block size %d exceeds capacity %d", sb, s, times.length));
+        }
+        int cc = input.readVarInt();
+        byte[] cs = new byte[cc];
+        int[] ls = new int[cc];
+        for (int i = 0; i < cc; ++i) {
+            cs[i] = input.readByte();
+            ls[i] = input.readVarInt();
+        }
+        for (int i = 0; i < cc; ++i) {
+            long b = input.getSize();
+            switch (cs[i]) {
+                case COLUMN_TIME:
+                    if (s > 0) {
+                        times[0] = input.readLong();
+                        long pd = 0L;
+                        for (int j = 1; j < s; ++j) {
+                            pd += unzigzag(input.readVarLong());
+                            times[j] = times[j - 1] + pd;
+                        }
+                    }
+                    break;
+                case COLUMN_NUMBER:
+                    if (s > 0) {
+                        numbers[0] = input.readLong();
+                        for (int j = 1; j < s; ++j) {
+                            numbers[j] = numbers[j - 1] + unzigzag(input.readVarLong());
+                        }
+                    }
+                    break;
+                case COLUMN_INPUT:
+                    readPacked(input, inputs, s);
+                    break;
+                case COLUMN_LEVEL:
+                    readPacked(input, levels, s);
+                    break;
+                case COLUMN_TYPE:
+                    readPacked(input, types, s);
+                    break;
+                case COLUMN_LOGGER:
+                    int nc = readCount(input, b, names.length);
+                    for (int j = 0; j < nc; ++j) {
+                        name(input.readStringRef());
+                    }
+                    readPacked(input, loggers, s);
+                    break;
+                case COLUMN_MESSAGE:
+                    messages.read(input, s, ls[i], transfer);
+                    break;
+                case COLUMN_SITE:
+                    int sc = readCount(input, b, siteLines.length);
+                    for (int j = 0; j < sc; ++j) {
+                        site(input.readStringRef(), input.readStringRef(), input.readStringRef(), input.readStringRef(), input.readVarInt());
+                    }
+                    readPacked(input, sites, s);
+                    break;
+                case COLUMN_EXCEPTION:
+                    exceptions.read(input, s, ls[i], transfer);
+                    break;
+                case COLUMN_TAG:
+                    tags.read(input, s, ls[i], transfer);
+                    break;
+                default:
+                    skip(input, ls[i]);
+                    break;
+            }
+            if (input.getSize() - b != ls[i]) {
+                throw new FormatInputException(String.format("Illegal format at size %d: column %d has illegal length %d", b, cs[i], ls[i]));
+            }
+        }
+        size = s;
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, nameCount, null);
+        Arrays.fill(nameSlots, 0);
+        Arrays.fill(siteClasses, 0, siteCount, null);
+        Arrays.fill(siteMethods, 0, siteCount, null);
+        Arrays.fill(siteStatements, 0, siteCount, null);
+        Arrays.fill(siteFiles, 0, siteCount, null);
+        Arrays.fill(siteSlots, 0);
+        messages.truncate(0);
+        exceptions.truncate(0);
+        tags.truncate(0);
+        size = 0;
+        nameCount = 0;
+        siteCount = 0;
+    }
+
+    public static int readLevels(FormatInputStream input, Level[] levels) throws IOException {
+        Validator.notNull("input", input);
+        Validator.notNull("levels", levels);
+
+        int s = readHeader(input);
+        if (s > levels.length) {
+            throw new IllegalArgumentException(String.format("Levels length %d is less than block size %d", levels.length, s));
+        }
+        int cc = input.readVarInt();
+        byte[] cs = new byte[cc];
+        int[] ls = new int[cc];
+        for (int i = 0; i < cc; ++i) {
+            cs[i] = input.readByte();
+            ls[i] = input.readVarInt();
+        }
+        int[] vs = new int[s];
+        for (int i = 0; i < cc; ++i) {
+            if (cs[i] == COLUMN_LEVEL) {
+                readPacked(input, vs, s);
+                for (int j = 0; j < s; ++j) {
+                    levels[j] = Level.get((byte) vs[j]);
+                }
+            } else {
+                skip(input, ls[i]);
+            }
+        }
+        return s;
+    }
+
+    private int check(int index) {
+        if ((index >= 0) && (index < size)) {
+            return index;
+        } else {
+            throw new IndexOutOfBoundsException(String.format("Index %d is out of block size %d", index, size));
+        }
+    }
+
+    private void writeMessage(EventBatch batch, int index) throws IOException {
+        String m = batch.messages[index];
+        FormatOutputStream o = messages.output;
+        if (m == null) {
+            o.writeString("");
+            return;
+        }
+        int p = index * EventBatch.PARAMS;
+        Object[] ps = batch.params;
+        long[] vs = batch.values;
+        int k = batch.kinds[index];
+        switch (batch.counts[index]) {
+            case 0:
+                o.writeString(m);
+                break;
+            case 1:
+                o.writeString(m, k, ps[p], vs[p]);
+                break;
+            case 2:
+                o.writeString(m, k, ps[p], vs[p], ps[p + 1], vs[p + 1]);
+                break;
+            case 3:
+                o.writeString(m, k, ps[p], vs[p], ps[p + 1], vs[p + 1], ps[p + 2], vs[p + 2]);
+                break;
+            case 4:
+                o.writeString(m, k, ps[p], vs[p], ps[p + 1], vs[p + 1], ps[p + 2], vs[p + 2], ps[p + 3], vs[p + 3]);
+                break;
+            default:
+                o.writeString(m, k, ps[p], vs[p], ps[p + 1], vs[p + 1], ps[p + 2], vs[p + 2], ps[p + 3], vs[p + 3], ps[p + 4], vs[p + 4]);
+                break;
+        }
+    }
+
+    private void writeException(Throwable exception) throws IOException {
+        if (exception != null) {
+            FormatOutputStream o = exceptions.output;
+            o.writeString(exception.getClass().getName());
+            o.writeStringRef(exception.getMessage());
+        }
+    }
+
+    private void writeTags(Tag tag, Tag[] tags) throws IOException {
+        if ((tag != null) || (tags != null)) {
+            FormatOutputStream o = this.tags.output;
+            o.writeTagRef(tag);
+            o.writeTagArrayRef(tags);
+        }
+    }
+
+    private int name(String logger) {
+        int[] ss = nameSlots;
+        int m = ss.length - 1;
+        for (int i = ((logger != null) ? logger.hashCode() * 0x9E3779B9 : 0) & m; ; i = (i + 1) & m) {
+            int s = ss[i];
+            if (s == 0) {
+                int n = nameCount++;
+                names[n] = logger;
+                ss[i] = n + 1;
+                return n;
+            } else if (Objects.equals(names[s - 1], logger)) {
+                return s - 1;
+            }
+        }
+    }
+
+    private int site(String clazz, String method, String statement, String file, int line) {
+        int[] ss = siteSlots;
+        int m = ss.length - 1;
+        int h = Objects.hash(clazz, method, statement, file) * 31 + line;
+        for (int i = (h * 0x9E3779B9) & m; ; i = (i + 1) & m) {
+            int s = ss[i];
+            if (s == 0) {
+                int n = siteCount++;
+                siteClasses[n] = clazz;
+                siteMethods[n] = method;
+                siteStatements[n] = statement;
+                siteFiles[n] = file;
+                siteLines[n] = line;
+                ss[i] = n + 1;
+                return n;
+            } else if ((siteLines[s - 1] == line) &&
+                       Objects.equals(siteClasses[s - 1], clazz) &&
+                       Objects.equals(siteMethods[s - 1], method) &&
+                       Objects.equals(siteStatements[s - 1], statement) &&
+                       Objects.equals(siteFiles[s - 1], file)) {
+                return s - 1;
+            }
+        }
+    }
+
+    private static int readCount(FormatInputStream input, long size, int capacity) throws IOException {
+        int c = input.readVarInt();
+        if ((c < 0) || (c > capacity)) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal table count %d", size, c));
+        }
+        return c;
+    }
+
+    private static int readHeader(FormatInputStream input) throws IOException {
+        long b = input.getSize();
+        byte v = input.readVersion();
+        if (v != VERSION) {
+            throw new FormatInputException(String.format("Illegal format at size %d: unsupported version %d", b, v));
+        }
+        b = input.getSize();
+        int s = input.readVarInt();
+        if ((s < 0) || (s > 1 << 20)) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal block size %d", b, s));
+        }
+        return s;
+    }
+
+    private static void writePacked(FormatOutputStream output, int[] values, int size) throws IOException {
+        int mx = 0;
+        for (int i = 0; i < size; ++i) {
+            mx |= values[i];
+        }
+        int w = 32 - Integer.numberOfLeadingZeros(mx);
+        output.writeByte((byte) w);
+        if (w > 0) {
+            long a = 0L;
+            int n = 0;
+            for (int i = 0; i < size; ++i) {
+                a |= ((long) values[i] & 0xFFFFFFFFL) << n;
+                n += w;
+                while (n >= 8) {
+                    output.writeByte((byte) a);
+                    a >>>= 8;
+                    n -= 8;
+                }
+            }
+            if (n > 0) {
+                output.writeByte((byte) a);
+            }
+        }
+    }
+
+    private static void readPacked(FormatInputStream input, int[] values, int size) throws IOException {
+        long b = input.getSize();
+        int w = input.readByte();
+        if ((w < 0) || (w > 32)) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal packed width %d", b, w));
+        }
+        long mk = (1L << w) - 1L;
+        long a = 0L;
+        int n = 0;
+        for (int i = 0; i < size; ++i) {
+            while (n < w) {
+                a |= ((long) input.readByte() & 0xFFL) << n;
+                n += 8;
+            }
+            values[i] = (int) (a & mk);
+            a >>>= w;
+            n -= w;
+        }
+    }
+
+    private static void skip(FormatInputStream input, long length) throws IOException {
+        long l = length;
+        while (l > 0L) {
+            long n = input.skip(l);
+            if (n > 0L) {
+                l -= n;
+            } else {
+                input.readByte();
+                l--;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static final class Heap {
+        final ArrayOutputStream array;
+        final FormatOutputStream output;
+        final int[] ends;
+
+        Heap(int capacity) {
+            this.array = new ArrayOutputStream(4096, Integer.MAX_VALUE);
+            this.output = new FormatOutputStream(array);
+            this.ends = new int[capacity];
+        }
+
+        int getSize() {
+            return array.getSize();
+        }
+
+        boolean isEmpty(int index) {
+            return ends[index] == ((index > 0) ? ends[index - 1] : 0);
+        }
+
+        FormatInputStream getInput(int index) {
+            int b = (index > 0) ? ends[index - 1] : 0;
+            return new FormatInputStream(new ByteArrayInputStream(array.getArray(), b, ends[index] - b));
+        }
+
+        void end(int index) {
+            ends[index] = array.getSize();
+        }
+
+        void truncate(int size) {
+            array.reset(size);
+        }
+
+        void write(FormatOutputStream output, int size) throws IOException {
+            int[] es = ends;
+            for (int i = 0, p = 0; i < size; ++i) {
+                output.writeVarInt(es[i] - p);
+                p = es[i];
+            }
+            output.write(array.getArray(), 0, array.getSize());
+        }
+
+        void read(FormatInputStream input, int size, int length, byte[] transfer) throws IOException {
+            long b = input.getSize();
+            int[] es = ends;
+            for (int i = 0, p = 0; i < size; ++i) {
+                int l = input.readVarInt();
+                if ((l < 0) || (p + l < p)) {
+                    throw new FormatInputException(String.format("Illegal format at size %d: illegal heap entry length %d", b, l));
+                }
+                p += l;
+                es[i] = p;
+            }
+            int hl = length - (int) (input.getSize() - b);
+            if ((size > 0) && (hl != es[size - 1])) {
+                throw new FormatInputException(String.format("Illegal format at size %d: heap length %d does not match entries length %d", b, hl, es[size - 1]));
+            }
+            while (hl > 0) {
+                int n = input.read(transfer, 0, Math.min(hl, transfer.length));
+                if (n < 0) {
+                    throw new FormatInputException("End of input stream reached");
+                }
+                array.write(transfer, 0, n);
+                hl -= n;
+            }
+        }
+    }
 }
@@ -14,12 +14,131 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package loghub.buffer;
 
+import loghub.concurrent.ThreadSection;
+import loghub.config.Validator;
+import loghub.event.EventDictionary;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class EventDictionaryBuffer {
+    public static final int CAPACITY = 65536;
+
+    private final Object lock;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final ThreadSection section;
+    private final ConcurrentHashMap<String, Integer> ids;
+    private final AtomicInteger next;
+    private final ArrayOutputStream array;
+    private final FormatOutputStream output;
+
+    public EventDictionaryBuffer(ByteBuffer buffer) {
+        this(buffer, CAPACITY);
+    }
+
+    public EventDictionaryBuffer(ByteBuffer buffer, int capacity) {
+        Validator.notNull("buffer", buffer);
+        Validator.inRangeInt("capacity", capacity, 0, Integer.MAX_VALUE - EventDictionary.ID_FIRST);
+
+        this.lock = new Object();
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.section = new ThreadSection(true);
+        this.ids = new ConcurrentHashMap<>();
+        this.next = new AtomicInteger(EventDictionary.ID_FIRST);
+        this.array = new ArrayOutputStream(256, Integer.MAX_VALUE);
+        this.output = new FormatOutputStream(array);
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return ids.size();
+    }
+
+    public void writeString(FormatOutputStream output, String value) throws IOException {
+        if (value != null) {
+            Integer id = ids.get(value);
+            if ((id == null) && (next.get() - EventDictionary.ID_FIRST < capacity)) {
+                id = define(value);
+            }
+            if (id != null) {
+                output.writeVarInt(id);
+            } else {
+                output.writeVarInt(EventDictionary.ID_LITERAL);
+                output.writeString(value);
+            }
+        } else {
+            output.writeVarInt(EventDictionary.ID_NULL);
+        }
+    }
+
+    public boolean pause() {
+        boolean e = section.disable();
+        section.await();
+        return e;
+    }
+
+    public void resume() {
+        section.enable();
+    }
+
+    public boolean send(OutputStream output) {
+        return buffer.send(output);
+    }
+
+    public void reset() {
+        synchronized (lock) {
+            boolean e = pause();
+            ids.clear();
+            next.set(EventDictionary.ID_FIRST);
+            buffer.reset();
+            if (e) {
+                resume();
+            }
+        }
+    }
+
+    private Integer define(String value) {
+        synchronized (lock) {
+            Integer id = ids.get(value);
+            if ((id == null) && section.enter()) {
+                try {
+                    int n = next.get();
+                    if (n - EventDictionary.ID_FIRST < capacity) {
+                        array.reset();
+                        output.writeByte(EventBuffer.RECORD_DICTIONARY);
+                        output.writeVarInt(n);
+                        output.writeString(value);
+                        if (buffer.append(array.getArray(), 0, array.getSize())) {
+                            next.set(n + 1);
+                            ids.putIfAbsent(value, n);
+                            id = n;
+                        }
+                    }
+                } catch (IOException e) {
+                } finally {
+                    section.leave();
+                }
+            }
+            return id;
+        }
+    }
 }
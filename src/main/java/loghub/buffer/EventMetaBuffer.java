@@ -14,12 +14,201 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package loghub.buffer;
 
+import loghub.Input;
+import loghub.Platform;
+import loghub.concurrent.ThreadSection;
+import loghub.config.Validator;
+import loghub.event.EventMeta;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class EventMetaBuffer {
+    public static final int CAPACITY = 16384;
+
+    private final Object lock;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final ThreadSection section;
+    private final AtomicReferenceArray<Site> sites;
+    private final ArrayOutputStream array;
+    private final FormatOutputStream output;
+    private volatile int size;
+
+    public EventMetaBuffer(ByteBuffer buffer) {
+        this(buffer, CAPACITY);
+    }
+
+    public EventMetaBuffer(ByteBuffer buffer, int capacity) {
+        Validator.notNull("buffer", buffer);
+        Validator.inRangeInt("capacity", capacity, 0, 1 << 24);
+
+        this.lock = new Object();
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.section = new ThreadSection(true);
+        this.sites = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(capacity, 1)) << 2);
+        this.array = new ArrayOutputStream(256, Integer.MAX_VALUE);
+        this.output = new FormatOutputStream(array);
+        this.size = 0;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void writeSite(FormatOutputStream output, Input input, String clazz, String method, String statement, String file, int line) throws IOException {
+        int h = hash(input, clazz, method, statement, file, line);
+        Site s = find(h, input, clazz, method, statement, file, line);
+        if ((s == null) && (size < capacity)) {
+            s = define(h, input, clazz, method, statement, file, line);
+        }
+        if (s != null) {
+            output.writeVarInt(s.id);
+        } else {
+            output.writeVarInt(EventMeta.ID_LITERAL);
+            writeSite(output, Platform.JAVA, input, clazz, method, statement, file, line);
+        }
+    }
+
+    public boolean pause() {
+        boolean e = section.disable();
+        section.await();
+        return e;
+    }
+
+    public void resume() {
+        section.enable();
+    }
+
+    public boolean send(OutputStream output) {
+        return buffer.send(output);
+    }
+
+    public void reset() {
+        synchronized (lock) {
+            boolean e = pause();
+            AtomicReferenceArray<Site> ss = sites;
+            for (int i = 0, ci = ss.length(); i < ci; ++i) {
+                ss.set(i, null);
+            }
+            size = 0;
+            buffer.reset();
+            if (e) {
+                resume();
+            }
+        }
+    }
+
+    private Site find(int hash, Input input, String clazz, String method, String statement, String file, int line) {
+        AtomicReferenceArray<Site> ss = sites;
+        int m = ss.length() - 1;
+        for (int i = hash & m; ; i = (i + 1) & m) {
+            Site s = ss.get(i);
+            if (s == null) {
+                return null;
+            } else if ((s.hash == hash) && s.matches(input, clazz, method, statement, file, line)) {
+                return s;
+            }
+        }
+    }
+
+    private Site define(int hash, Input input, String clazz, String method, String statement, String file, int line) {
+        synchronized (lock) {
+            Site s = find(hash, input, clazz, method, statement, file, line);
+            if ((s == null) && (size < capacity) && section.enter()) {
+                try {
+                    int id = EventMeta.ID_FIRST + size;
+                    array.reset();
+                    output.writeByte(EventBuffer.RECORD_META);
+                    output.writeVarInt(id);
+                    writeSite(output, Platform.JAVA, input, clazz, method, statement, file, line);
+                    if (buffer.append(array.getArray(), 0, array.getSize())) {
+                        s = new Site(id, hash, input, clazz, method, statement, file, line);
+                        AtomicReferenceArray<Site> ss = sites;
+                        int m = ss.length() - 1;
+                        int i = hash & m;
+                        while (ss.get(i) != null) {
+                            i = (i + 1) & m;
+                        }
+                        ss.set(i, s);
+                        size++;
+                    }
+                } catch (IOException e) {
+                } finally {
+                    section.leave();
+                }
+            }
+            return s;
+        }
+    }
+
+    private static void writeSite(FormatOutputStream output, Platform platform, Input input, String clazz, String method, String statement, String file, int line) throws IOException {
+        output.writeByte(platform.id);
+        output.writeByte(input.id);
+        output.writeStringRef(clazz);
+        output.writeStringRef(method);
+        output.writeStringRef(statement);
+        output.writeStringRef(file);
+        output.writeInt(line);
+    }
+
+    private static int hash(Input input, String clazz, String method, String statement, String file, int line) {
+        int h = input.hashCode();
+        h = 31 * h + Objects.hashCode(clazz);
+        h = 31 * h + Objects.hashCode(method);
+        h = 31 * h + Objects.hashCode(statement);
+        h = 31 * h + Objects.hashCode(file);
+        h = 31 * h + line;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Site {
+        final int id;
+        final int hash;
+        final Input input;
+        final String clazz;
+        final String method;
+        final String statement;
+        final String file;
+        final int line;
+
+        Site(int id, int hash, Input input, String clazz, String method, String statement, String file, int line) {
+            this.id = id;
+            this.hash = hash;
+            this.input = input;
+            this.clazz = clazz;
+            this.method = method;
+            this.statement = statement;
+            this.file = file;
+            this.line = line;
+        }
+
+        boolean matches(Input input, String clazz, String method, String statement, String file, int line) {
+            return (this.line == line) &&
+                   (this.input == input) &&
+                   Objects.equals(this.clazz, clazz) &&
+                   Objects.equals(this.method, method) &&
+                   Objects.equals(this.statement, statement) &&
+                   Objects.equals(this.file, file);
+        }
+    }
 }
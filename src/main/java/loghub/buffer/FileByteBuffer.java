@@ -17,60 +17,385 @@
 
 package loghub.buffer;
 
+import loghub.concurrent.ThreadSection;
 import loghub.config.Validator;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32C;
 
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
 public final class FileByteBuffer implements ByteBuffer {
+    public static final int SEGMENT_LENGTH = 1 << 30;
+    public static final int FRAME_HEADER = RECORD_HEADER + 12;
+
+    private static final int TRANSFER_LENGTH = 64 * 1024;
+
     private final Object lock;
     private final String file;
     private final long length;
-    private final RandomAccessFile pointer1;
-    private final RandomAccessFile pointer2;
-    private long index;
+    private final int segmentLength;
+    private final ThreadSection section;
+    private final RandomAccessFile pointer;
+    private final MappedByteBuffer[] segments;
+    private final AtomicLongArray limits;
+    private final AtomicLong index;
+    private final ThreadLocal<java.nio.ByteBuffer[]> views;
+    private final ThreadLocal<CRC32C> checksums;
+    private final java.nio.ByteBuffer[] sendViews;
+    private final byte[] transfer;
+    private volatile long base;
+    private volatile long sent;
+    private long recoveredCount;
+    private long recoveredLength;
+    private long tornLength;
 
     public FileByteBuffer(String file, long length) {
+        this(file, length, (int) Math.min(length, SEGMENT_LENGTH));
+    }
+
+    public FileByteBuffer(String file, long length, int segmentLength) {
         Validator.notNull("file", file);
         Validator.inRangeLong("length", length, 0L, Long.MAX_VALUE);
+        Validator.inRangeInt("segmentLength", segmentLength, (length > 0L) ? FRAME_HEADER : 0, SEGMENT_LENGTH);
 
         try {
             RandomAccessFile ptr = new RandomAccessFile(file, "rw");
-            ptr.setLength(length);
-
-            this.lock = new Object();
-            this.file = file;
-            this.length = length;
-            this.pointer1 = ptr;
-            this.pointer2 = new RandomAccessFile(file, "rw");
-            this.index = 0L;
+            try {
+                ptr.setLength(length);
+                FileChannel ch = ptr.getChannel();
+                int sc = (segmentLength > 0) ? (int) ((length + segmentLength - 1) / segmentLength) : 0;
+                MappedByteBuffer[] ss = new MappedByteBuffer[sc];
+                AtomicLongArray ls = new AtomicLongArray(sc);
+                for (int i = 0; i < sc; ++i) {
+                    long b = (long) i * segmentLength;
+                    ss[i] = ch.map(FileChannel.MapMode.READ_WRITE, b, Math.min(segmentLength, length - b));
+                    ls.set(i, -1L);
+                }
+
+                this.lock = new Object();
+                this.file = file;
+                this.length = length;
+                this.segmentLength = segmentLength;
+                this.section = new ThreadSection(true);
+                this.pointer = ptr;
+                this.segments = ss;
+                this.limits = ls;
+                this.index = new AtomicLong(0L);
+                this.views = ThreadLocal.withInitial(() -> new java.nio.ByteBuffer[ss.length]);
+                this.checksums = ThreadLocal.withInitial(CRC32C::new);
+                this.sendViews = new java.nio.ByteBuffer[sc];
+                this.transfer = new byte[TRANSFER_LENGTH];
+                this.base = 0L;
+                this.sent = 0L;
+                recover();
+            } catch (Throwable e) {
+                ptr.close();
+                throw e;
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public String getFile() {
+        return file;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getSegmentLength() {
+        return segmentLength;
+    }
+
+    public long getIndex() {
+        return Math.min(index.get(), length);
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getSequence() {
+        return base + getIndex();
+    }
+
+    public long getRecoveredCount() {
+        return recoveredCount;
+    }
+
+    public long getRecoveredLength() {
+        return recoveredLength;
+    }
+
+    public long getTornLength() {
+        return tornLength;
+    }
+
     @Override
     public boolean isReady() {
-        return false;
+        return section.isEnabled();
     }
 
     @Override
     public boolean append(byte[] array, int offset, int length) {
+        int l = length + FRAME_HEADER;
+        if ((l > 0) && (l <= segmentLength) && section.enter()) {
+            try {
+                AtomicLong idx = index;
+                for (;;) {
+                    long b = idx.get();
+                    int s = (int) (b / segmentLength);
+                    long sb = (long) s * segmentLength;
+                    long se = Math.min(sb + segmentLength, this.length);
+                    long rb = (b + l <= se) ? b : se;
+                    long re = rb + l;
+                    if (re > this.length) {
+                        break;
+                    }
+                    if (idx.compareAndSet(b, re)) {
+                        if (rb != b) {
+                            limits.set(s, b);
+                        }
+                        write(rb, array, offset, length);
+                        return true;
+                    }
+                }
+            } finally {
+                section.leave();
+            }
+            section.disable();
+        }
         return false;
     }
 
     @Override
     public boolean send(OutputStream output) {
-        return false;
+        synchronized (lock) {
+            try {
+                long e = getIndex();
+                long p = sent;
+                byte[] t = transfer;
+                int tn = 0;
+                while (p < e) {
+                    int s = (int) (p / segmentLength);
+                    MappedByteBuffer sg = segments[s];
+                    int o = (int) (p - (long) s * segmentLength);
+                    long lm = limits.get(s);
+                    if ((lm == p) || (o + FRAME_HEADER > sg.capacity())) {
+                        p = (long) (s + 1) * segmentLength;
+                        continue;
+                    }
+                    byte m = sg.get(o);
+                    VarHandle.acquireFence();
+                    if (m != RECORD_COMMITTED) {
+                        break;
+                    }
+                    int l = sg.getInt(o + 1);
+                    if (tn + RECORD_HEADER > t.length) {
+                        output.write(t, 0, tn);
+                        tn = 0;
+                    }
+                    t[tn] = RECORD_COMMITTED;
+                    t[tn + 1] = (byte) (l >> 24);
+                    t[tn + 2] = (byte) (l >> 16);
+                    t[tn + 3] = (byte) (l >> 8);
+                    t[tn + 4] = (byte) (l);
+                    tn += RECORD_HEADER;
+                    java.nio.ByteBuffer v = sendViews[s];
+                    if (v == null) {
+                        v = sg.duplicate();
+                        sendViews[s] = v;
+                    }
+                    v.clear();
+                    v.position(o + FRAME_HEADER);
+                    for (int r = l; r > 0; ) {
+                        if (tn == t.length) {
+                            output.write(t, 0, tn);
+                            tn = 0;
+                        }
+                        int n = Math.min(r, t.length - tn);
+                        v.get(t, tn, n);
+                        tn += n;
+                        r -= n;
+                    }
+                    p += FRAME_HEADER + l;
+                }
+                if (tn > 0) {
+                    output.write(t, 0, tn);
+                }
+                sent = p;
+                output.flush();
+                return p >= e;
+            } catch (IOException e) {
+                return false;
+            }
+        }
     }
 
     @Override
     public void reset() {
+        synchronized (lock) {
+            section.disable();
+            section.await();
+            long e = getIndex();
+            clear(0L, e);
+            for (int i = 0, ci = segments.length; i < ci; ++i) {
+                limits.set(i, -1L);
+            }
+            base += e;
+            index.set(0L);
+            sent = 0L;
+            section.enable();
+        }
+    }
+
+    public void force() {
+        long e = getIndex();
+        for (int i = 0, ci = segments.length; (i < ci) && ((long) i * segmentLength < e); ++i) {
+            segments[i].force();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            section.disable();
+            section.await();
+            force();
+            try {
+                pointer.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void write(long position, byte[] array, int offset, int length) {
+        int s = (int) (position / segmentLength);
+        int o = (int) (position - (long) s * segmentLength);
+        java.nio.ByteBuffer[] vs = views.get();
+        java.nio.ByteBuffer v = vs[s];
+        if (v == null) {
+            v = segments[s].duplicate();
+            vs[s] = v;
+        }
+        long q = base + position;
+        CRC32C c = checksums.get();
+        c.reset();
+        c.update(array, offset, length);
+        update(c, length, q);
+        v.putInt(o + 1, length);
+        v.putLong(o + 5, q);
+        v.putInt(o + 13, (int) c.getValue());
+        v.clear();
+        v.position(o + FRAME_HEADER);
+        v.put(array, offset, length);
+        VarHandle.releaseFence();
+        v.put(o, RECORD_COMMITTED);
+    }
 
+    private static void update(CRC32C checksum, int length, long sequence) {
+        for (int i = 24; i >= 0; i -= 8) {
+            checksum.update(length >>> i);
+        }
+        for (int i = 56; i >= 0; i -= 8) {
+            checksum.update((int) (sequence >>> i));
+        }
+    }
+
+    private long clear(long begin, long end) {
+        int tl = (int) Math.min(Math.max(end - begin, 0L), TRANSFER_LENGTH);
+        byte[] t = new byte[tl];
+        byte[] z = new byte[tl];
+        long d = begin;
+        long p = begin;
+        while (p < end) {
+            int s = (int) (p / segmentLength);
+            int o = (int) (p - (long) s * segmentLength);
+            java.nio.ByteBuffer v = segments[s].duplicate();
+            int n = (int) Math.min(Math.min(end - p, t.length), v.capacity() - o);
+            v.position(o);
+            v.get(t, 0, n);
+            for (int i = n - 1; i >= 0; --i) {
+                if (t[i] != 0) {
+                    v.position(o);
+                    v.put(z, 0, n);
+                    d = p + i + 1;
+                    break;
+                }
+            }
+            p += n;
+        }
+        return d;
+    }
+
+    private long clearFrame(long position) {
+        int s = (int) (position / segmentLength);
+        int o = (int) (position - (long) s * segmentLength);
+        int cp = segments[s].capacity();
+        if (o + FRAME_HEADER > cp) {
+            return position;
+        }
+        int l = segments[s].getInt(o + 1);
+        int n = ((l >= 0) && (l <= cp - o - FRAME_HEADER)) ? FRAME_HEADER + l : FRAME_HEADER;
+        return clear(position, position + n);
+    }
+
+    private void recover() {
+        CRC32C c = new CRC32C();
+        long b = -1L;
+        long n = 0L;
+        long p = 0L;
+        for (;;) {
+            if (p >= length) {
+                break;
+            }
+            int s = (int) (p / segmentLength);
+            MappedByteBuffer sg = segments[s];
+            int o = (int) (p - (long) s * segmentLength);
+            if ((o + FRAME_HEADER <= sg.capacity()) && (sg.get(o) == RECORD_COMMITTED)) {
+                int l = sg.getInt(o + 1);
+                long q = sg.getLong(o + 5);
+                if ((l >= 0) && (o + FRAME_HEADER + l <= sg.capacity()) && ((b < 0L) ? (q >= p) : (q == b + p))) {
+                    java.nio.ByteBuffer v = sg.duplicate();
+                    v.position(o + FRAME_HEADER);
+                    v.limit(o + FRAME_HEADER + l);
+                    c.reset();
+                    c.update(v);
+                    update(c, l, q);
+                    if ((int) c.getValue() == sg.getInt(o + 13)) {
+                        b = q - p;
+                        n++;
+                        p += FRAME_HEADER + l;
+                        continue;
+                    }
+                }
+            } else if ((s + 1 < segments.length) && (segments[s + 1].get(0) == RECORD_COMMITTED)) {
+                limits.set(s, p);
+                p = (long) (s + 1) * segmentLength;
+                continue;
+            }
+            break;
+        }
+        long t = (p < length) ? clearFrame(p) - p : 0L;
+        index.set(p);
+        base = Math.max(b, 0L);
+        recoveredCount = n;
+        recoveredLength = p;
+        tornLength = t;
+        if ((n > 0L) || (t > 0L)) {
+            System.out.println(String.format("[LOGHUB-SDK-JAVA]: Buffer '%s' is recovered: records=%d, length=%d, torn=%d", file, n, p, t));
+        }
     }
 }
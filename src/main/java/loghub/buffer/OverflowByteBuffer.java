@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.buffer;
+
+import loghub.Level;
+import loghub.Overflow;
+import loghub.config.Validator;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class OverflowByteBuffer implements ByteBuffer {
+    public static final long TIMEOUT = 10L;
+
+    private static final int EVICT_ATTEMPTS = 4;
+    private static final long PARK_NANOS = 50000L;
+
+    private final ByteBuffer buffer;
+    private final Overflow overflow;
+    private final long timeout;
+    private final LongAdder droppedCount;
+    private final LongAdder droppedSize;
+    private final LongAdder evictedCount;
+    private final LongAdder evictedSize;
+    private final LongAdder blockedCount;
+    private final LongAdder timedOutCount;
+
+    public OverflowByteBuffer(ByteBuffer buffer, Overflow overflow) {
+        this(buffer, overflow, TIMEOUT);
+    }
+
+    public OverflowByteBuffer(ByteBuffer buffer, Overflow overflow, long timeout) {
+        Validator.notNull("buffer", buffer);
+        Validator.notNull("overflow", overflow);
+        Validator.inRangeLong("timeout", timeout, 0L, Long.MAX_VALUE / 1000000L);
+
+        this.buffer = buffer;
+        this.overflow = overflow;
+        this.timeout = timeout;
+        this.droppedCount = new LongAdder();
+        this.droppedSize = new LongAdder();
+        this.evictedCount = new LongAdder();
+        this.evictedSize = new LongAdder();
+        this.blockedCount = new LongAdder();
+        this.timedOutCount = new LongAdder();
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getDroppedSize() {
+        return droppedSize.sum();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    public long getEvictedSize() {
+        return evictedSize.sum();
+    }
+
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOutCount.sum();
+    }
+
+    @Override
+    public boolean isReady() {
+        return buffer.isReady();
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        return append(array, offset, length, null);
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length, Level level) {
+        if (buffer.append(array, offset, length, level)) {
+            return true;
+        }
+        switch (overflow) {
+            case DROP_OLDEST:
+                return evict(array, offset, length, level, null);
+            case LEVEL:
+                return (level != null) ? evict(array, offset, length, level, level) : drop(length);
+            case BLOCK:
+                return await(array, offset, length, level);
+            default:
+                return drop(length);
+        }
+    }
+
+    @Override
+    public long evict(Level level) {
+        return buffer.evict(level);
+    }
+
+    @Override
+    public void reserve(Reservation reservation, int length) {
+        buffer.reserve(reservation, length);
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        return buffer.send(output);
+    }
+
+    @Override
+    public boolean send(WritableByteChannel channel) {
+        return buffer.send(channel);
+    }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+    }
+
+    private boolean evict(byte[] array, int offset, int length, Level level, Level evict) {
+        ByteBuffer b = buffer;
+        for (int i = 0; i < EVICT_ATTEMPTS; ++i) {
+            long n = b.evict(evict);
+            if (n <= 0L) {
+                break;
+            }
+            evictedCount.increment();
+            evictedSize.add(n);
+            if (b.append(array, offset, length, level)) {
+                return true;
+            }
+        }
+        return drop(length);
+    }
+
+    private boolean await(byte[] array, int offset, int length, Level level) {
+        ByteBuffer b = buffer;
+        blockedCount.increment();
+        long d = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (d - System.nanoTime() > 0L) {
+            LockSupport.parkNanos(PARK_NANOS);
+            if (b.append(array, offset, length, level)) {
+                return true;
+            }
+        }
+        timedOutCount.increment();
+        return drop(length);
+    }
+
+    private boolean drop(int length) {
+        droppedCount.increment();
+        droppedSize.add(length);
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.config.Validator;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Caller-owned region reserved by {@link ByteBuffer#reserve(Reservation, int)}. Bytes are written in place
+ * when the buffer supports it, otherwise or when the reserved length is exceeded they go to a fallback array.
+ * Every reservation must be finished by {@link ByteBuffer#commit(Reservation, loghub.Level)} or
+ * {@link ByteBuffer#abort(Reservation)} on the same buffer, reservations are not thread-safe.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class Reservation extends OutputStream {
+    private final ArrayOutputStream fallback;
+    private final FormatOutputStream output;
+    private ByteBuffer owner;
+    private Object region;
+    private byte[] array;
+    private int offset;
+    private int length;
+    private int index;
+    private boolean overflowed;
+
+    public Reservation(int capacity) {
+        Validator.inRangeInt("capacity", capacity, 0, Integer.MAX_VALUE);
+
+        this.fallback = new ArrayOutputStream(capacity, Integer.MAX_VALUE);
+        this.output = new FormatOutputStream(this);
+        this.owner = null;
+        this.region = null;
+        this.array = null;
+        this.offset = 0;
+        this.length = 0;
+        this.index = 0;
+        this.overflowed = false;
+    }
+
+    public FormatOutputStream getOutput() {
+        return output;
+    }
+
+    public ByteBuffer getOwner() {
+        return owner;
+    }
+
+    public boolean isDetached() {
+        return owner == null;
+    }
+
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public byte[] getArray() {
+        return ((owner != null) && !overflowed) ? array : fallback.getArray();
+    }
+
+    public int getOffset() {
+        return ((owner != null) && !overflowed) ? offset : 0;
+    }
+
+    public int getSize() {
+        return ((owner != null) && !overflowed) ? index : fallback.getSize();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if ((owner != null) && !overflowed) {
+            if (index < length) {
+                array[offset + index++] = (byte) b;
+                return;
+            }
+            overflow();
+        }
+        fallback.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if ((owner != null) && !overflowed) {
+            Validator.notNull("b", b);
+            Validator.inRangeInt("off", off, 0, b.length);
+            Validator.inRangeInt("len", len, 0, b.length - off);
+
+            if (index + len <= length) {
+                System.arraycopy(b, off, array, offset + index, len);
+                index += len;
+                return;
+            }
+            overflow();
+        }
+        fallback.write(b, off, len);
+    }
+
+    void open() {
+        owner = null;
+        region = null;
+        array = null;
+        offset = 0;
+        length = 0;
+        index = 0;
+        overflowed = false;
+        fallback.reset();
+    }
+
+    void open(ByteBuffer owner, Object region, byte[] array, int offset, int length) {
+        this.owner = owner;
+        this.region = region;
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        this.index = 0;
+        this.overflowed = false;
+        fallback.reset();
+    }
+
+    Object getRegion() {
+        return region;
+    }
+
+    int getRegionOffset() {
+        return offset;
+    }
+
+    void detach() {
+        owner = null;
+        region = null;
+        array = null;
+        overflowed = false;
+    }
+
+    private void overflow() throws IOException {
+        fallback.reset();
+        fallback.write(array, offset, index);
+        overflowed = true;
+    }
+}
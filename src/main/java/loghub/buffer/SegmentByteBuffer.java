@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.buffer;
+
+import loghub.Durability;
+import loghub.Level;
+import loghub.concurrent.ThreadKeeper;
+import loghub.concurrent.ThreadManager;
+import loghub.config.Validator;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class SegmentByteBuffer implements ByteBuffer {
+    public static final int SEGMENT_LENGTH = 64 * 1024 * 1024;
+    public static final long INTERVAL = 10L;
+    public static final long GROUP_LENGTH = 1024L * 1024L;
+
+    private static final String SEGMENT_PREFIX = "loghub-segment-";
+    private static final String SEGMENT_SUFFIX = ".buffer";
+
+    private final Object lock;
+    private final Object commit;
+    private final File directory;
+    private final long budget;
+    private final int segmentLength;
+    private final Durability durability;
+    private final long interval;
+    private final long groupLength;
+    private final ArrayDeque<Segment> segments;
+    private final AtomicLong appended;
+    private final AtomicLong appendedLength;
+    private final Thread committer;
+    private volatile Segment active;
+    private volatile long durable;
+    private volatile long durableLength;
+    private volatile boolean closed;
+    private long segmentNumber;
+
+    public SegmentByteBuffer(String directory, long budget) {
+        this(directory, budget, (int) Math.min(budget, SEGMENT_LENGTH), Durability.NONE, INTERVAL, GROUP_LENGTH);
+    }
+
+    public SegmentByteBuffer(String directory, long budget, int segmentLength, Durability durability, long interval, long groupLength) {
+        Validator.notNull("directory", directory);
+        Validator.inRangeLong("budget", budget, FileByteBuffer.FRAME_HEADER, Long.MAX_VALUE);
+        Validator.inRangeInt("segmentLength", segmentLength, FileByteBuffer.FRAME_HEADER, (int) Math.min(budget, FileByteBuffer.SEGMENT_LENGTH));
+        Validator.notNull("durability", durability);
+        Validator.inRangeLong("interval", interval, 1L, 3600000L);
+        Validator.inRangeLong("groupLength", groupLength, 1L, Long.MAX_VALUE);
+
+        File d = new File(directory);
+        if (!d.isDirectory() && !d.mkdirs()) {
+            throw new IllegalArgumentException(String.format("Directory '%s' is not created", directory));
+        }
+
+        this.lock = new Object();
+        this.commit = new Object();
+        this.directory = d;
+        this.budget = budget;
+        this.segmentLength = segmentLength;
+        this.durability = durability;
+        this.interval = interval;
+        this.groupLength = groupLength;
+        this.segments = new ArrayDeque<>();
+        this.appended = new AtomicLong(0L);
+        this.appendedLength = new AtomicLong(0L);
+        this.durable = 0L;
+        this.durableLength = 0L;
+        this.closed = false;
+        this.segmentNumber = 0L;
+        recover();
+        Segment l = segments.peekLast();
+        this.active = ((l != null) && l.buffer.isReady()) ? l : roll(null);
+
+        if (durability != Durability.NONE) {
+            ThreadKeeper k = new ThreadKeeper();
+            Thread t = new Thread(String.format("loghub-commit-thread-%s", d.getName())) {
+                @Override
+                public void run() {
+                    SegmentByteBuffer.this.commit(k);
+                }
+            };
+            t.setDaemon(true);
+            t.start();
+            this.committer = t;
+        } else {
+            this.committer = null;
+        }
+    }
+
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public int getSegmentLength() {
+        return segmentLength;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getGroupLength() {
+        return groupLength;
+    }
+
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    public long getDurableCount() {
+        return durable;
+    }
+
+    @Override
+    public boolean isReady() {
+        Segment a = active;
+        if (closed) {
+            return false;
+        } else if ((a != null) && a.buffer.isReady()) {
+            return true;
+        }
+        synchronized (lock) {
+            return getPending() + segmentLength <= budget;
+        }
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        for (Segment a = (active != null) ? active : roll(null); (a != null) && !closed; ) {
+            if (a.buffer.append(array, offset, length)) {
+                long t = appended.incrementAndGet();
+                long l = appendedLength.addAndGet(length + FileByteBuffer.FRAME_HEADER);
+                if (durability == Durability.GROUP) {
+                    await(t, l);
+                }
+                return true;
+            }
+            Segment n = roll(a);
+            if (n == a) {
+                return false;
+            }
+            a = n;
+        }
+        return false;
+    }
+
+    @Override
+    public long evict(Level level) {
+        if (level == null) {
+            synchronized (lock) {
+                Segment s = segments.peek();
+                if (s != null) {
+                    FileByteBuffer b = s.buffer;
+                    long n = b.getIndex() - b.getSent();
+                    if (s != active) {
+                        segments.poll();
+                        s.delete();
+                        return Math.max(n, 1L);
+                    } else if (n > 0L) {
+                        b.reset();
+                        return n;
+                    }
+                }
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        Validator.notNull("output", output);
+
+        synchronized (lock) {
+            for (Segment s = segments.peek(); s != null; s = segments.peek()) {
+                if (!s.buffer.send(output)) {
+                    return false;
+                }
+                if ((s == active) && (s.buffer.isReady() || (roll(s) == s))) {
+                    return true;
+                }
+                if (s.buffer.getSent() < s.buffer.getIndex()) {
+                    continue;
+                }
+                segments.poll();
+                s.delete();
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (lock) {
+            for (Segment s = segments.poll(); s != null; s = segments.poll()) {
+                s.delete();
+            }
+            active = null;
+            active = roll(null);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread t = committer;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            for (Segment s : segments) {
+                s.buffer.close();
+            }
+        }
+        synchronized (commit) {
+            commit.notifyAll();
+        }
+    }
+
+    private Segment roll(Segment current) {
+        synchronized (lock) {
+            Segment a = active;
+            if ((a != current) && (a != null)) {
+                return a;
+            }
+            if (closed || (getPending() + segmentLength > budget)) {
+                return current;
+            }
+            if (current != null) {
+                current.buffer.close();
+            }
+            File f = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber++, SEGMENT_SUFFIX));
+            Segment s = new Segment(f, new FileByteBuffer(f.getPath(), segmentLength, segmentLength));
+            segments.add(s);
+            active = s;
+            return s;
+        }
+    }
+
+    private long getPending() {
+        long p = 0L;
+        for (Segment s : segments) {
+            FileByteBuffer b = s.buffer;
+            p += b.getIndex() - b.getSent();
+        }
+        return p;
+    }
+
+    private void await(long ticket, long length) {
+        Thread t = committer;
+        if (length - durableLength >= groupLength) {
+            LockSupport.unpark(t);
+        }
+        if (durable < ticket) {
+            synchronized (commit) {
+                while ((durable < ticket) && !closed && t.isAlive()) {
+                    try {
+                        commit.wait(interval);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void commit(ThreadKeeper keeper) {
+        try {
+            long n = TimeUnit.MILLISECONDS.toNanos(interval);
+            while (!closed && ThreadManager.isAlive()) {
+                LockSupport.parkNanos(n);
+                force();
+            }
+            force();
+        } catch (Throwable e) {
+            System.out.println(String.format("[LOGHUB-SDK-JAVA]: Buffer '%s' is not committed: %s", directory.getPath(), e));
+        } finally {
+            keeper.close();
+            synchronized (commit) {
+                commit.notifyAll();
+            }
+        }
+    }
+
+    private void force() {
+        long t = appended.get();
+        long l = appendedLength.get();
+        if (t > durable) {
+            Segment a = active;
+            if (a != null) {
+                a.buffer.force();
+            }
+            durableLength = l;
+            durable = t;
+            if (durability == Durability.GROUP) {
+                synchronized (commit) {
+                    commit.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void recover() {
+        File[] fs = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (fs != null) {
+            Arrays.sort(fs);
+            for (File f : fs) {
+                String n = f.getName();
+                try {
+                    long sn = Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length()));
+                    Segment s = new Segment(f, new FileByteBuffer(f.getPath(), segmentLength, segmentLength));
+                    if (s.buffer.getIndex() > 0L) {
+                        segments.add(s);
+                    } else {
+                        s.delete();
+                    }
+                    segmentNumber = Math.max(segmentNumber, sn + 1L);
+                } catch (RuntimeException e) {
+                    System.out.println(String.format("[LOGHUB-SDK-JAVA]: Segment '%s' is not recovered: %s", f.getPath(), e));
+                }
+            }
+        }
+    }
+
+    private static final class Segment {
+        final File file;
+        final FileByteBuffer buffer;
+
+        Segment(File file, FileByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        void delete() {
+            buffer.close();
+            file.delete();
+        }
+    }
+}
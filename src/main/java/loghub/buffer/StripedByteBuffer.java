@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.Level;
+import loghub.config.Validator;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class StripedByteBuffer implements ByteBuffer {
+    private final ArrayByteBuffer[] stripes;
+    private final int mask;
+
+    public StripedByteBuffer(int length) {
+        this(length, createStripeCount(), ArrayByteBuffer.BLOCK_COUNT);
+    }
+
+    public StripedByteBuffer(int length, int stripes, int blocks) {
+        Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE);
+        Validator.inRangeInt("stripes", stripes, 1, 1024);
+        Validator.inRangeInt("blocks", blocks, 1, 1024);
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException(String.format("Argument 'stripes = %d' is not a power of two", stripes));
+        }
+
+        ArrayByteBuffer[] ss = new ArrayByteBuffer[stripes];
+        for (int i = 0; i < stripes; ++i) {
+            ss[i] = new ArrayByteBuffer(length / stripes, blocks);
+        }
+        this.stripes = ss;
+        this.mask = stripes - 1;
+    }
+
+    private static int createStripeCount() {
+        int c = Runtime.getRuntime().availableProcessors();
+        return Math.min(Integer.highestOneBit(Math.max(c, 1) * 2 - 1), 64);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public boolean isReady() {
+        for (ArrayByteBuffer s : stripes) {
+            if (s.isReady()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        return append(array, offset, length, null);
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length, Level level) {
+        ArrayByteBuffer[] ss = stripes;
+        int m = mask;
+        int i = probe();
+        for (int j = 0; j <= m; ++j) {
+            if (ss[(i + j) & m].append(array, offset, length, level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void reserve(Reservation reservation, int length) {
+        ArrayByteBuffer[] ss = stripes;
+        int m = mask;
+        int i = probe();
+        for (int j = 0; j <= m; ++j) {
+            ss[(i + j) & m].reserve(reservation, length);
+            if (!reservation.isDetached()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long evict(Level level) {
+        ArrayByteBuffer[] ss = stripes;
+        int m = mask;
+        int i = probe();
+        for (int j = 0; j <= m; ++j) {
+            long n = ss[(i + j) & m].evict(level);
+            if (n > 0L) {
+                return n;
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        boolean r = true;
+        for (ArrayByteBuffer s : stripes) {
+            r &= s.send(output);
+        }
+        return r;
+    }
+
+    @Override
+    public boolean send(WritableByteChannel channel) {
+        boolean r = true;
+        for (ArrayByteBuffer s : stripes) {
+            r &= s.send(channel);
+        }
+        return r;
+    }
+
+    @Override
+    public void reset() {
+        for (ArrayByteBuffer s : stripes) {
+            s.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ArrayByteBuffer s : stripes) {
+            s.close();
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
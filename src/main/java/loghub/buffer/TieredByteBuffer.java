@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.buffer;
+
+import loghub.Level;
+import loghub.concurrent.ThreadKeeper;
+import loghub.concurrent.ThreadManager;
+import loghub.config.Validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class TieredByteBuffer implements ByteBuffer {
+    public static final int MEMORY_LENGTH = 64 * 1024 * 1024;
+    public static final long SEGMENT_LENGTH = 256L * 1024L * 1024L;
+    public static final long SPILL_TIMEOUT = 10000L;
+
+    private static final long SPILL_INTERVAL = 100L;
+    private static final long SPILL_DELAY = 10L;
+    private static final String SEGMENT_PREFIX = "loghub-";
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Object lock;
+    private final File directory;
+    private final long diskLength;
+    private final long segmentLength;
+    private final long spillTimeout;
+    private final ArrayByteBuffer memory;
+    private final ArrayDeque<Segment> segments;
+    private final java.nio.ByteBuffer header;
+    private final AtomicBoolean pressure;
+    private final Thread spiller;
+    private long segmentNumber;
+    private volatile long diskUsed;
+    private volatile long sendTime;
+    private volatile boolean closed;
+
+    public TieredByteBuffer(int memoryLength, String directory, long diskLength) {
+        this(memoryLength, directory, diskLength, Math.min(diskLength, SEGMENT_LENGTH), SPILL_TIMEOUT);
+    }
+
+    public TieredByteBuffer(int memoryLength, String directory, long diskLength, long segmentLength, long spillTimeout) {
+        Validator.inRangeInt("memoryLength", memoryLength, 0, Integer.MAX_VALUE);
+        Validator.notNull("directory", directory);
+        Validator.inRangeLong("diskLength", diskLength, 0L, Long.MAX_VALUE);
+        Validator.inRangeLong("segmentLength", segmentLength, 0L, Long.MAX_VALUE);
+        Validator.inRangeLong("spillTimeout", spillTimeout, 0L, Long.MAX_VALUE);
+
+        File d = new File(directory);
+        if (!d.isDirectory() && !d.mkdirs()) {
+            throw new IllegalArgumentException(String.format("Directory '%s' is not created", directory));
+        }
+
+        this.lock = new Object();
+        this.directory = d;
+        this.diskLength = diskLength;
+        this.segmentLength = segmentLength;
+        this.spillTimeout = spillTimeout;
+        this.memory = new ArrayByteBuffer(memoryLength);
+        this.segments = new ArrayDeque<>();
+        this.header = java.nio.ByteBuffer.allocate(RECORD_HEADER);
+        this.pressure = new AtomicBoolean(false);
+        this.segmentNumber = 0L;
+        this.diskUsed = 0L;
+        this.sendTime = System.currentTimeMillis();
+        this.closed = false;
+        recover();
+
+        ThreadKeeper k = new ThreadKeeper();
+        Thread t = new Thread(String.format("loghub-spill-thread-%s", d.getName())) {
+            @Override
+            public void run() {
+                TieredByteBuffer.this.spill(k);
+            }
+        };
+        t.setDaemon(true);
+        t.start();
+        this.spiller = t;
+    }
+
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    public int getMemoryLength() {
+        return memory.getBlockLength() * memory.getBlockCount();
+    }
+
+    public long getDiskLength() {
+        return diskLength;
+    }
+
+    public long getDiskUsed() {
+        return diskUsed;
+    }
+
+    public long getSegmentLength() {
+        return segmentLength;
+    }
+
+    public long getSpillTimeout() {
+        return spillTimeout;
+    }
+
+    @Override
+    public boolean isReady() {
+        return memory.isReady() || (!closed && (diskUsed < diskLength));
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length) {
+        return append(array, offset, length, null);
+    }
+
+    @Override
+    public boolean append(byte[] array, int offset, int length, Level level) {
+        if (memory.append(array, offset, length, level)) {
+            return true;
+        }
+        pressure.set(true);
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+            try {
+                spill(false);
+                if (memory.append(array, offset, length, level)) {
+                    return true;
+                }
+                if (!spill(true)) {
+                    return false;
+                }
+                return memory.append(array, offset, length, level) || write(array, offset, length);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public long evict(Level level) {
+        if (level == null) {
+            synchronized (lock) {
+                Segment s = segments.poll();
+                if (s != null) {
+                    s.delete();
+                    diskUsed -= s.length;
+                    return Math.max(s.length - s.sent, 1L);
+                }
+            }
+        }
+        return memory.evict(level);
+    }
+
+    @Override
+    public void reserve(Reservation reservation, int length) {
+        memory.reserve(reservation, length);
+    }
+
+    @Override
+    public boolean send(OutputStream output) {
+        synchronized (lock) {
+            try {
+                if (sendDisk(Channels.newChannel(output)) && memory.send(output)) {
+                    sendTime = System.currentTimeMillis();
+                    return true;
+                } else {
+                    output.flush();
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public boolean send(WritableByteChannel channel) {
+        synchronized (lock) {
+            if (sendDisk(channel) && memory.send(channel)) {
+                sendTime = System.currentTimeMillis();
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (lock) {
+            memory.reset();
+            for (Segment s = segments.poll(); s != null; s = segments.poll()) {
+                s.delete();
+            }
+            diskUsed = 0L;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pressure.set(true);
+        try {
+            spiller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            for (Segment s : segments) {
+                s.seal();
+            }
+            memory.close();
+        }
+    }
+
+    private void spill(ThreadKeeper keeper) {
+        try {
+            for (;;) {
+                int r = ThreadManager.sleep(SPILL_INTERVAL, SPILL_DELAY, pressure);
+                if ((r < 0) || closed) {
+                    spill(true);
+                    break;
+                }
+                pressure.set(false);
+                ArrayByteBuffer m = memory;
+                if (m.hasFull() && ((r > 0) || !m.hasFree() || (System.currentTimeMillis() - sendTime >= spillTimeout))) {
+                    spill(false);
+                }
+                force();
+            }
+        } catch (Throwable e) {
+            System.out.println(String.format("[LOGHUB-SDK-JAVA]: Buffer '%s' is not spilled: %s", directory.getPath(), e));
+        } finally {
+            keeper.close();
+        }
+    }
+
+    private boolean spill(boolean all) throws IOException {
+        synchronized (lock) {
+            if (diskUsed < diskLength) {
+                Segment s = segment();
+                FileChannel c = s.channel;
+                long b = c.position();
+                boolean r = memory.spill(c, all, diskLength - diskUsed);
+                long e = c.position();
+                if (e > b) {
+                    s.dirty = true;
+                    s.length = e;
+                    diskUsed += e - b;
+                }
+                return r;
+            }
+            return false;
+        }
+    }
+
+    private boolean write(byte[] array, int offset, int length) throws IOException {
+        synchronized (lock) {
+            long l = RECORD_HEADER + (long) length;
+            if (diskUsed + l > diskLength) {
+                return false;
+            }
+            Segment s = segment();
+            FileChannel c = s.channel;
+            java.nio.ByteBuffer h = header;
+            h.clear();
+            h.put(RECORD_COMMITTED);
+            h.putInt(length);
+            h.flip();
+            java.nio.ByteBuffer[] vs = {h, java.nio.ByteBuffer.wrap(array, offset, length)};
+            long b = c.position();
+            while (vs[1].hasRemaining()) {
+                c.write(vs);
+            }
+            s.dirty = true;
+            s.length = c.position();
+            diskUsed += s.length - b;
+            return true;
+        }
+    }
+
+    private void force() throws IOException {
+        synchronized (lock) {
+            Segment s = segments.peekLast();
+            if (s != null) {
+                s.force();
+            }
+        }
+    }
+
+    private Segment segment() throws IOException {
+        Segment s = segments.peekLast();
+        if ((s == null) || (s.channel == null) || (s.length >= segmentLength)) {
+            if (s != null) {
+                s.seal();
+            }
+            s = new Segment(new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber++, SEGMENT_SUFFIX)));
+            s.open();
+            segments.add(s);
+        }
+        return s;
+    }
+
+    private boolean sendDisk(WritableByteChannel channel) {
+        try {
+            for (Segment s = segments.peek(); s != null; s = segments.peek()) {
+                s.seal();
+                try (FileChannel c = FileChannel.open(s.file.toPath(), StandardOpenOption.READ)) {
+                    while (s.sent < s.length) {
+                        long n = c.transferTo(s.sent, s.length - s.sent, channel);
+                        if (n <= 0L) {
+                            return false;
+                        }
+                        s.sent += n;
+                    }
+                }
+                segments.poll();
+                s.delete();
+                diskUsed -= s.length;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void recover() {
+        File[] fs = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (fs != null) {
+            Arrays.sort(fs);
+            long u = 0L;
+            for (File f : fs) {
+                String n = f.getName();
+                try {
+                    long sn = Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length()));
+                    Segment s = new Segment(f);
+                    s.recover();
+                    if (s.length > 0L) {
+                        segments.add(s);
+                        u += s.length;
+                    } else {
+                        s.delete();
+                    }
+                    segmentNumber = Math.max(segmentNumber, sn + 1L);
+                } catch (NumberFormatException | IOException e) {
+                    System.out.println(String.format("[LOGHUB-SDK-JAVA]: Segment '%s' is not recovered: %s", f.getPath(), e));
+                }
+            }
+            diskUsed = u;
+        }
+    }
+
+    private static final class Segment {
+        final File file;
+        FileChannel channel;
+        long length;
+        long sent;
+        boolean dirty;
+
+        Segment(File file) {
+            this.file = file;
+            this.channel = null;
+            this.length = 0L;
+            this.sent = 0L;
+            this.dirty = false;
+        }
+
+        void open() throws IOException {
+            FileChannel c = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            c.position(c.size());
+            channel = c;
+            length = c.size();
+        }
+
+        void force() throws IOException {
+            FileChannel c = channel;
+            if ((c != null) && dirty) {
+                dirty = false;
+                c.force(false);
+            }
+        }
+
+        void seal() {
+            FileChannel c = channel;
+            if (c != null) {
+                try {
+                    force();
+                } catch (IOException e) {
+                }
+                channel = null;
+                try {
+                    c.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+
+        void delete() {
+            seal();
+            file.delete();
+        }
+
+        void recover() throws IOException {
+            try (FileChannel c = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                java.nio.ByteBuffer h = java.nio.ByteBuffer.allocate(RECORD_HEADER);
+                long z = c.size();
+                long p = 0L;
+                while (p + RECORD_HEADER <= z) {
+                    h.clear();
+                    while (h.hasRemaining() && (c.read(h, p + h.position()) > 0)) {
+                    }
+                    if (h.hasRemaining() || (h.get(0) != RECORD_COMMITTED)) {
+                        break;
+                    }
+                    int l = h.getInt(1);
+                    if ((l < 0) || (p + RECORD_HEADER + l > z)) {
+                        break;
+                    }
+                    p += RECORD_HEADER + l;
+                }
+                if (p < z) {
+                    c.truncate(p);
+                    c.force(false);
+                }
+                length = p;
+            }
+        }
+    }
+}
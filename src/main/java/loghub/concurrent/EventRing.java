@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.concurrent;
+
+import loghub.config.Validator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class EventRing {
+    private final EventSlot[] slots;
+    private final int mask;
+    private final AtomicLong tail;
+    private long head;
+
+    public EventRing(int capacity) {
+        Validator.inRangeInt("capacity", capacity, 1, 1 << 30);
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Argument 'capacity = %d' is not a power of two", capacity));
+        }
+
+        EventSlot[] ss = new EventSlot[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            ss[i] = new EventSlot(i);
+        }
+        this.slots = ss;
+        this.mask = capacity - 1;
+        this.tail = new AtomicLong(0L);
+        this.head = 0L;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public EventSlot claim() {
+        EventSlot[] ss = slots;
+        AtomicLong t = tail;
+        for (;;) {
+            long p = t.get();
+            EventSlot s = ss[(int) p & mask];
+            long d = s.sequence - p;
+            if (d == 0L) {
+                if (t.compareAndSet(p, p + 1L)) {
+                    s.position = p;
+                    return s;
+                }
+            } else if (d < 0L) {
+                return null;
+            }
+        }
+    }
+
+    public void publish(EventSlot slot) {
+        slot.sequence = slot.position + 1L;
+    }
+
+    public EventSlot poll() {
+        long h = head;
+        EventSlot s = slots[(int) h & mask];
+        if (s.sequence == h + 1L) {
+            return s;
+        } else {
+            return null;
+        }
+    }
+
+    public void release(EventSlot slot) {
+        slot.clear();
+        slot.sequence = slot.position + slots.length;
+        head = slot.position + 1L;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.concurrent;
+
+import loghub.Input;
+import loghub.Level;
+import loghub.Tag;
+import loghub.Type;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class EventSlot {
+    volatile long sequence;
+    long position;
+
+    public long time;
+    public long number;
+    public Input input;
+    public String clazz;
+    public String method;
+    public String statement;
+    public String file;
+    public int line;
+    public Level level;
+    public String logger;
+    public Type type;
+    public Throwable exception;
+    public Tag tag;
+    public Tag[] tags;
+    public String message;
+    public int count;
+    public int kinds;
+    public Object param1;
+    public Object param2;
+    public Object param3;
+    public Object param4;
+    public Object param5;
+    public long value1;
+    public long value2;
+    public long value3;
+    public long value4;
+    public long value5;
+
+    EventSlot(long sequence) {
+        this.sequence = sequence;
+        this.position = 0L;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message) {
+        this.time = time;
+        this.number = number;
+        this.input = input;
+        this.clazz = clazz;
+        this.method = method;
+        this.statement = statement;
+        this.file = file;
+        this.line = line;
+        this.level = level;
+        this.logger = logger;
+        this.type = type;
+        this.exception = exception;
+        this.tag = tag;
+        this.tags = tags;
+        this.message = message;
+        this.count = 0;
+        this.kinds = 0;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 1;
+        this.param1 = param1;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 2;
+        this.param1 = param1;
+        this.param2 = param2;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 3;
+        this.param1 = param1;
+        this.param2 = param2;
+        this.param3 = param3;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3, Object param4) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 4;
+        this.param1 = param1;
+        this.param2 = param2;
+        this.param3 = param3;
+        this.param4 = param4;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, Object param1, Object param2, Object param3, Object param4, Object param5) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 5;
+        this.param1 = param1;
+        this.param2 = param2;
+        this.param3 = param3;
+        this.param4 = param4;
+        this.param5 = param5;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, int kinds, Object param1, long value1) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 1;
+        this.kinds = kinds;
+        this.param1 = param1;
+        this.value1 = value1;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, int kinds, Object param1, long value1, Object param2, long value2) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 2;
+        this.kinds = kinds;
+        this.param1 = param1;
+        this.value1 = value1;
+        this.param2 = param2;
+        this.value2 = value2;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 3;
+        this.kinds = kinds;
+        this.param1 = param1;
+        this.value1 = value1;
+        this.param2 = param2;
+        this.value2 = value2;
+        this.param3 = param3;
+        this.value3 = value3;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 4;
+        this.kinds = kinds;
+        this.param1 = param1;
+        this.value1 = value1;
+        this.param2 = param2;
+        this.value2 = value2;
+        this.param3 = param3;
+        this.value3 = value3;
+        this.param4 = param4;
+        this.value4 = value4;
+    }
+
+    public void set(long time, long number, Input input,
+                    String clazz, String method, String statement, String file, int line,
+                    Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                    String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) {
+        set(time, number, input, clazz, method, statement, file, line, level, logger, type, exception, tag, tags, message);
+        this.count = 5;
+        this.kinds = kinds;
+        this.param1 = param1;
+        this.value1 = value1;
+        this.param2 = param2;
+        this.value2 = value2;
+        this.param3 = param3;
+        this.value3 = value3;
+        this.param4 = param4;
+        this.value4 = value4;
+        this.param5 = param5;
+        this.value5 = value5;
+    }
+
+    void clear() {
+        this.input = null;
+        this.clazz = null;
+        this.method = null;
+        this.statement = null;
+        this.file = null;
+        this.level = null;
+        this.logger = null;
+        this.type = null;
+        this.exception = null;
+        this.tag = null;
+        this.tags = null;
+        this.message = null;
+        this.param1 = null;
+        this.param2 = null;
+        this.param3 = null;
+        this.param4 = null;
+        this.param5 = null;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.concurrent;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class NumberBlock {
+    long begin;
+    long end;
+    long next;
+
+    public NumberBlock() {
+        this.begin = 0L;
+        this.end = 0L;
+        this.next = 0L;
+    }
+
+    public long getBegin() {
+        return begin;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getNext() {
+        return next;
+    }
+}
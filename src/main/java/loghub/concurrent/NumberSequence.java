@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.concurrent;
+
+import loghub.config.Validator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class NumberSequence {
+    private final AtomicLong number;
+    private final int length;
+    private final NumberListener listener;
+
+    public NumberSequence(int length, NumberListener listener) {
+        Validator.inRangeInt("length", length, 1, Integer.MAX_VALUE);
+
+        this.number = new AtomicLong(0L);
+        this.length = length;
+        this.listener = listener;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public long getNumber() {
+        return number.get();
+    }
+
+    public long next(NumberBlock block) {
+        long n = block.next;
+        if (n == block.end) {
+            n = reserve(block);
+        }
+        block.next = n + 1L;
+        return n;
+    }
+
+    private long reserve(NumberBlock block) {
+        long b = number.getAndAdd(length);
+        long e = b + length;
+        block.begin = b;
+        block.end = e;
+        block.next = b;
+        if (listener != null) {
+            listener.reserve(System.currentTimeMillis(), Thread.currentThread().getId(), b, e);
+        }
+        return b;
+    }
+}
@@ -17,35 +17,46 @@
 
 package loghub.concurrent;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * @author Dmitry Kotlyarov
  * @since 1.0
  */
-public final class ThreadSection {
-    private final AtomicBoolean enabled;
-    private final AtomicLong count = new AtomicLong(0L);
+public final class ThreadSection extends ThreadSectionPadding2 {
+    private static final VarHandle ENABLED;
+    private static final VarHandle COUNT;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            ENABLED = l.findVarHandle(ThreadSectionFields.class, "enabled", boolean.class);
+            COUNT = l.findVarHandle(ThreadSectionFields.class, "count", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public ThreadSection(boolean enabled) {
-        this.enabled = new AtomicBoolean(enabled);
+        this.enabled = enabled;
+        this.count = 0L;
     }
 
     public boolean isEnabled() {
-        return enabled.get();
+        return enabled;
     }
 
     public boolean isDisabled() {
-        return !enabled.get() && (count.get() == 0L);
+        return !enabled && (count == 0L);
     }
 
     public boolean enable() {
-        return enabled.compareAndSet(false, true);
+        return ENABLED.compareAndSet(this, false, true);
     }
 
     public boolean disable() {
-        return enabled.compareAndSet(true, false);
+        return ENABLED.compareAndSet(this, true, false);
     }
 
     public void await() {
@@ -53,13 +64,24 @@ public final class ThreadSection {
         }
     }
 
+    public boolean await(long timeout) {
+        long b = System.nanoTime();
+        while (!isDisabled()) {
+            if (System.nanoTime() - b >= timeout) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
     public boolean enter() {
-        if (enabled.get()) {
-            count.incrementAndGet();
-            if (enabled.get()) {
+        if (enabled) {
+            COUNT.getAndAdd(this, 1L);
+            if (enabled) {
                 return true;
             } else {
-                count.decrementAndGet();
+                COUNT.getAndAdd(this, -1L);
                 return false;
             }
         } else {
@@ -68,10 +90,23 @@ public final class ThreadSection {
     }
 
     public void leave() {
-        long c = count.decrementAndGet();
+        long c = (long) COUNT.getAndAdd(this, -1L) - 1L;
         if (c < 0L) {
-            count.incrementAndGet();
+            COUNT.getAndAdd(this, 1L);
             throw new IllegalStateException(String.format("Illegal enter/leave calls: %d", c));
         }
     }
 }
+
+abstract class ThreadSectionPadding1 {
+    long p01, p02, p03, p04, p05, p06, p07, p08;
+}
+
+abstract class ThreadSectionFields extends ThreadSectionPadding1 {
+    volatile boolean enabled;
+    volatile long count;
+}
+
+abstract class ThreadSectionPadding2 extends ThreadSectionFields {
+    long p11, p12, p13, p14, p15, p16, p17, p18;
+}
@@ -19,6 +19,7 @@ package loghub.connector;
 
 import loghub.Input;
 import loghub.Level;
+import loghub.Param;
 import loghub.Tag;
 import loghub.Type;
 
@@ -52,5 +53,59 @@ public interface Connector {
                     String clazz, String method, String statement, String file, int line,
                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
                     String message, Object param1, Object param2, Object param3, Object param4, Object param5);
+    public default void logPrimitive(long time, long number, Input input,
+                                     String clazz, String method, String statement, String file, int line,
+                                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                     String message, int kinds, Object param1, long value1) {
+        log(time, number, input,
+                clazz, method, statement, file, line,
+                level, logger, type, exception, tag, tags,
+                message, Param.box(kinds, 1, param1, value1));
+    }
+    public default void logPrimitive(long time, long number, Input input,
+                                     String clazz, String method, String statement, String file, int line,
+                                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                     String message, int kinds, Object param1, long value1, Object param2, long value2) {
+        log(time, number, input,
+                clazz, method, statement, file, line,
+                level, logger, type, exception, tag, tags,
+                message, Param.box(kinds, 1, param1, value1), Param.box(kinds, 2, param2, value2));
+    }
+    public default void logPrimitive(long time, long number, Input input,
+                                     String clazz, String method, String statement, String file, int line,
+                                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                     String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) {
+        log(time, number, input,
+                clazz, method, statement, file, line,
+                level, logger, type, exception, tag, tags,
+                message, Param.box(kinds, 1, param1, value1), Param.box(kinds, 2, param2, value2), Param.box(kinds, 3, param3, value3));
+    }
+    public default void logPrimitive(long time, long number, Input input,
+                                     String clazz, String method, String statement, String file, int line,
+                                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                     String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) {
+        log(time, number, input,
+                clazz, method, statement, file, line,
+                level, logger, type, exception, tag, tags,
+                message, Param.box(kinds, 1, param1, value1), Param.box(kinds, 2, param2, value2), Param.box(kinds, 3, param3, value3), Param.box(kinds, 4, param4, value4));
+    }
+    public default void logPrimitive(long time, long number, Input input,
+                                     String clazz, String method, String statement, String file, int line,
+                                     Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                                     String message, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) {
+        log(time, number, input,
+                clazz, method, statement, file, line,
+                level, logger, type, exception, tag, tags,
+                message, Param.box(kinds, 1, param1, value1), Param.box(kinds, 2, param2, value2), Param.box(kinds, 3, param3, value3), Param.box(kinds, 4, param4, value4), Param.box(kinds, 5, param5, value5));
+    }
+    public default void logBatch(EventBatch batch) {
+        for (int i = 0, ci = batch.getSize(); i < ci; ++i) {
+            batch.log(i, this);
+        }
+    }
+    public default void reserve(long time, long thread, long begin, long end) {
+    }
+    public default void suppress(long count, long size) {
+    }
     public void collect(String metric, long count, long value, int precision, String unit);
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.connector;
+
+import loghub.Input;
+import loghub.Level;
+import loghub.Tag;
+import loghub.Type;
+import loghub.config.Validator;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class EventBatch {
+    public static final int PARAMS = 5;
+
+    public final long[] times;
+    public final long[] numbers;
+    public final Input[] inputs;
+    public final String[] classes;
+    public final String[] methods;
+    public final String[] statements;
+    public final String[] files;
+    public final int[] lines;
+    public final Level[] levels;
+    public final String[] loggers;
+    public final Type[] types;
+    public final Throwable[] exceptions;
+    public final Tag[] tags;
+    public final Tag[][] tagArrays;
+    public final String[] messages;
+    public final int[] counts;
+    public final int[] kinds;
+    public final Object[] params;
+    public final long[] values;
+    private int size;
+
+    public EventBatch(int capacity) {
+        Validator.inRangeInt("capacity", capacity, 1, 1 << 20);
+
+        this.times = new long[capacity];
+        this.numbers = new long[capacity];
+        this.inputs = new Input[capacity];
+        this.classes = new String[capacity];
+        this.methods = new String[capacity];
+        this.statements = new String[capacity];
+        this.files = new String[capacity];
+        this.lines = new int[capacity];
+        this.levels = new Level[capacity];
+        this.loggers = new String[capacity];
+        this.types = new Type[capacity];
+        this.exceptions = new Throwable[capacity];
+        this.tags = new Tag[capacity];
+        this.tagArrays = new Tag[capacity][];
+        this.messages = new String[capacity];
+        this.counts = new int[capacity];
+        this.kinds = new int[capacity];
+        this.params = new Object[capacity * PARAMS];
+        this.values = new long[capacity * PARAMS];
+        this.size = 0;
+    }
+
+    public int getCapacity() {
+        return times.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == times.length;
+    }
+
+    public Object getParam(int index, int param) {
+        return params[index * PARAMS + param - 1];
+    }
+
+    public long getValue(int index, int param) {
+        return values[index * PARAMS + param - 1];
+    }
+
+    public int add(long time, long number, Input input,
+                   String clazz, String method, String statement, String file, int line,
+                   Level level, String logger, Type type, Throwable exception, Tag tag, Tag[] tags,
+                   String message, int count, int kinds,
+                   Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) {
+        int i = size;
+        if (i >= times.length) {
+            throw new IllegalStateException(String.format("Batch is full: capacity=%d", times.length));
+        }
+        this.times[i] = time;
+        this.numbers[i] = number;
+        this.inputs[i] = input;
+        this.classes[i] = clazz;
+        this.methods[i] = method;
+        this.statements[i] = statement;
+        this.files[i] = file;
+        this.lines[i] = line;
+        this.levels[i] = level;
+        this.loggers[i] = logger;
+        this.types[i] = type;
+        this.exceptions[i] = exception;
+        this.tags[i] = tag;
+        this.tagArrays[i] = tags;
+        this.messages[i] = message;
+        this.counts[i] = count;
+        this.kinds[i] = kinds;
+        int p = i * PARAMS;
+        this.params[p] = param1;
+        this.params[p + 1] = param2;
+        this.params[p + 2] = param3;
+        this.params[p + 3] = param4;
+        this.params[p + 4] = param5;
+        this.values[p] = value1;
+        this.values[p + 1] = value2;
+        this.values[p + 2] = value3;
+        this.values[p + 3] = value4;
+        this.values[p + 4] = value5;
+        this.size = i + 1;
+        return i;
+    }
+
+    public void log(int index, Connector connector) {
+        int p = index * PARAMS;
+        switch (counts[index]) {
+            case 0:
+                connector.log(times[index], numbers[index], inputs[index],
+                        classes[index], methods[index], statements[index], files[index], lines[index],
+                        levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                        messages[index]);
+                break;
+            case 1:
+                if (kinds[index] == 0) {
+                    connector.log(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], params[p]);
+                } else {
+                    connector.logPrimitive(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], kinds[index], params[p], values[p]);
+                }
+                break;
+            case 2:
+                if (kinds[index] == 0) {
+                    connector.log(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], params[p], params[p + 1]);
+                } else {
+                    connector.logPrimitive(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], kinds[index], params[p], values[p], params[p + 1], values[p + 1]);
+                }
+                break;
+            case 3:
+                if (kinds[index] == 0) {
+                    connector.log(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], params[p], params[p + 1], params[p + 2]);
+                } else {
+                    connector.logPrimitive(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], kinds[index], params[p], values[p], params[p + 1], values[p + 1], params[p + 2], values[p + 2]);
+                }
+                break;
+            case 4:
+                if (kinds[index] == 0) {
+                    connector.log(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], params[p], params[p + 1], params[p + 2], params[p + 3]);
+                } else {
+                    connector.logPrimitive(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], kinds[index], params[p], values[p], params[p + 1], values[p + 1], params[p + 2], values[p + 2], params[p + 3], values[p + 3]);
+                }
+                break;
+            case 5:
+                if (kinds[index] == 0) {
+                    connector.log(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], params[p], params[p + 1], params[p + 2], params[p + 3], params[p + 4]);
+                } else {
+                    connector.logPrimitive(times[index], numbers[index], inputs[index],
+                            classes[index], methods[index], statements[index], files[index], lines[index],
+                            levels[index], loggers[index], types[index], exceptions[index], tags[index], tagArrays[index],
+                            messages[index], kinds[index], params[p], values[p], params[p + 1], values[p + 1], params[p + 2], values[p + 2], params[p + 3], values[p + 3], params[p + 4], values[p + 4]);
+                }
+                break;
+        }
+    }
+
+    public void clear() {
+        int s = size;
+        for (int i = 0; i < s; ++i) {
+            this.inputs[i] = null;
+            this.classes[i] = null;
+            this.methods[i] = null;
+            this.statements[i] = null;
+            this.files[i] = null;
+            this.levels[i] = null;
+            this.loggers[i] = null;
+            this.types[i] = null;
+            this.exceptions[i] = null;
+            this.tags[i] = null;
+            this.tagArrays[i] = null;
+            this.messages[i] = null;
+        }
+        for (int i = 0, ci = s * PARAMS; i < ci; ++i) {
+            this.params[i] = null;
+        }
+        this.size = 0;
+    }
+}
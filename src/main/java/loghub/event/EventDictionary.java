@@ -14,10 +14,15 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package loghub.event;
 
+import loghub.config.Validator;
+import loghub.io.FormatInputException;
+import loghub.io.FormatInputStream;
+
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * @author Dmitry Kotlyarov
@@ -25,4 +30,62 @@ import java.io.Serializable;
  */
 public final class EventDictionary implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    public static final int ID_NULL = 0;
+    public static final int ID_LITERAL = 1;
+    public static final int ID_FIRST = 2;
+
+    private String[] values;
+
+    public EventDictionary() {
+        this.values = new String[64];
+    }
+
+    public String get(int id) {
+        String[] vs = values;
+        return ((id >= ID_FIRST) && (id < vs.length)) ? vs[id] : null;
+    }
+
+    public void define(int id, String value) {
+        Validator.inRangeInt("id", id, ID_FIRST, Integer.MAX_VALUE);
+        Validator.notNull("value", value);
+
+        String[] vs = values;
+        if (id >= vs.length) {
+            vs = Arrays.copyOf(vs, Math.max(id + 1, (int) Math.min(2L * vs.length, Integer.MAX_VALUE)));
+            values = vs;
+        }
+        vs[id] = value;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    public void readDefinition(FormatInputStream input) throws IOException {
+        long s = input.getSize();
+        int id = input.readVarInt();
+        if (id >= ID_FIRST) {
+            define(id, input.readString());
+        } else {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal dictionary id %d", s, id));
+        }
+    }
+
+    public String readString(FormatInputStream input) throws IOException {
+        long s = input.getSize();
+        int id = input.readVarInt();
+        if (id == ID_NULL) {
+            return null;
+        } else if (id == ID_LITERAL) {
+            return input.readString();
+        } else {
+            String v = get(id);
+            if (v != null) {
+                return v;
+            } else {
+                throw new FormatInputException(String.format("Illegal format at size %d: undefined dictionary id %d", s, id));
+            }
+        }
+    }
 }
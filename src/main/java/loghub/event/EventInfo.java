@@ -17,8 +17,11 @@
 
 package loghub.event;
 
+import loghub.config.Validator;
 import loghub.io.FormatInputStream;
+import loghub.io.FormatOutputStream;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -37,15 +40,17 @@ public final class EventInfo implements Serializable {
     public final long lostCount;
     public final long lostSize;
 
-    public EventInfo(FormatInputStream input) {
-        this.number = 0L;
-        this.size = 0;
-        this.totalCount = 0L;
-        this.totalSize = 0L;
-        this.sentCount = 0L;
-        this.sentSize = 0L;
-        this.lostCount = 0L;
-        this.lostSize = 0L;
+    public EventInfo(FormatInputStream input) throws IOException {
+        Validator.notNull("input", input);
+
+        this.number = input.readVarLong();
+        this.size = input.readVarInt();
+        this.totalCount = input.readVarLong();
+        this.totalSize = input.readVarLong();
+        this.sentCount = input.readVarLong();
+        this.sentSize = input.readVarLong();
+        this.lostCount = input.readVarLong();
+        this.lostSize = input.readVarLong();
     }
 
     public EventInfo(long number, int size, long totalCount, long totalSize, long sentCount, long sentSize, long lostCount, long lostSize) {
@@ -58,4 +63,17 @@ public final class EventInfo implements Serializable {
         this.lostCount = lostCount;
         this.lostSize = lostSize;
     }
+
+    public void write(FormatOutputStream output) throws IOException {
+        Validator.notNull("output", output);
+
+        output.writeVarLong(number);
+        output.writeVarInt(size);
+        output.writeVarLong(totalCount);
+        output.writeVarLong(totalSize);
+        output.writeVarLong(sentCount);
+        output.writeVarLong(sentSize);
+        output.writeVarLong(lostCount);
+        output.writeVarLong(lostSize);
+    }
 }
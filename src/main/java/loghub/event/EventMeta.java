@@ -14,10 +14,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package loghub.event;
 
+import loghub.Input;
+import loghub.Platform;
+import loghub.config.Validator;
+import loghub.io.FormatInputException;
+import loghub.io.FormatInputStream;
+
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * @author Dmitry Kotlyarov
@@ -25,4 +32,80 @@ import java.io.Serializable;
  */
 public final class EventMeta implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    public static final int ID_LITERAL = 1;
+    public static final int ID_FIRST = 2;
+
+    private EventSource[] sources;
+
+    public EventMeta() {
+        this.sources = new EventSource[64];
+    }
+
+    public EventSource get(int id) {
+        EventSource[] ss = sources;
+        return ((id >= ID_FIRST) && (id < ss.length)) ? ss[id] : null;
+    }
+
+    public void define(int id, EventSource source) {
+        Validator.inRangeInt("id", id, ID_FIRST, Integer.MAX_VALUE);
+        Validator.notNull("source", source);
+
+        EventSource[] ss = sources;
+        if (id >= ss.length) {
+            ss = Arrays.copyOf(ss, Math.max(id + 1, (int) Math.min(2L * ss.length, Integer.MAX_VALUE)));
+            sources = ss;
+        }
+        ss[id] = source;
+    }
+
+    public void clear() {
+        Arrays.fill(sources, null);
+    }
+
+    public void readDefinition(FormatInputStream input) throws IOException {
+        long s = input.getSize();
+        int id = input.readVarInt();
+        if (id >= ID_FIRST) {
+            define(id, readSite(input));
+        } else {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal meta id %d", s, id));
+        }
+    }
+
+    public EventSource readSource(FormatInputStream input) throws IOException {
+        long s = input.getSize();
+        int id = input.readVarInt();
+        if (id == ID_LITERAL) {
+            return readSite(input);
+        } else {
+            EventSource v = get(id);
+            if (v != null) {
+                return v;
+            } else {
+                throw new FormatInputException(String.format("Illegal format at size %d: undefined meta id %d", s, id));
+            }
+        }
+    }
+
+    private static EventSource readSite(FormatInputStream input) throws IOException {
+        long s = input.getSize();
+        byte pid = input.readByte();
+        Platform p = Platform.get(pid);
+        if (p == null) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal platform %d", s, pid));
+        }
+        s = input.getSize();
+        byte iid = input.readByte();
+        Input i = Input.get(iid);
+        if (i == null) {
+            throw new FormatInputException(String.format("Illegal format at size %d: illegal input %d", s, iid));
+        }
+        String c = input.readStringRef();
+        String m = input.readStringRef();
+        String st = input.readStringRef();
+        String f = input.readStringRef();
+        int l = input.readInt();
+        return new EventSource(p, i.name(), c, m, st, f, l);
+    }
 }
@@ -67,6 +67,16 @@ public final class ArrayOutputStream extends OutputStream {
         return a;
     }
 
+    public void reset() {
+        index = 0;
+    }
+
+    public void reset(int size) {
+        Validator.inRangeInt("size", size, 0, index);
+
+        index = size;
+    }
+
     @Override
     public void write(int b) throws IOException {
         if (index >= array.length) {
@@ -77,6 +87,21 @@ public final class ArrayOutputStream extends OutputStream {
         array[index++] = (byte) b;
     }
 
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Validator.notNull("b", b);
+        Validator.inRangeInt("off", off, 0, b.length);
+        Validator.inRangeInt("len", len, 0, b.length - off);
+
+        if (index + len > array.length) {
+            byte[] a = new byte[Math.max((array.length > 0) ? array.length * 2 : 1, index + len)];
+            System.arraycopy(array, 0, a, 0, index);
+            array = a;
+        }
+        System.arraycopy(b, off, array, index, len);
+        index += len;
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
@@ -181,6 +181,42 @@ public class FormatInputStream extends InputStream {
         return (char) v;
     }
 
+    public final int readVarInt() throws IOException {
+        long s = size;
+        int v = 0;
+        int sh = 0;
+        byte b = -1;
+        for (; b < 0; sh += 7) {
+            if (sh > 28) {
+                throw new FormatInputException(String.format("Illegal format at size %d: read var int of length larger than 5 bytes", s));
+            }
+            b = readByte();
+            int l = b;
+            l = l & 0x7F;
+            l = l << sh;
+            v = v | l;
+        }
+        return v;
+    }
+
+    public final long readVarLong() throws IOException {
+        long s = size;
+        long v = 0L;
+        int sh = 0;
+        byte b = -1;
+        for (; b < 0; sh += 7) {
+            if (sh > 63) {
+                throw new FormatInputException(String.format("Illegal format at size %d: read var long of length larger than 10 bytes", s));
+            }
+            b = readByte();
+            long l = b;
+            l = l & 0x7FL;
+            l = l << sh;
+            v = v | l;
+        }
+        return v;
+    }
+
     public final short readShort() throws IOException {
         byte b1 = readByte();
         byte b0 = readByte();
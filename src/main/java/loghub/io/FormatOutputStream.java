@@ -19,6 +19,7 @@ package loghub.io;
 
 import loghub.Blob;
 import loghub.Image;
+import loghub.Param;
 import loghub.Tag;
 import loghub.config.Validator;
 import loghub.util.Color;
@@ -41,10 +42,12 @@ import java.util.regex.Pattern;
  */
 public class FormatOutputStream extends OutputStream {
     protected final OutputStream output;
+    protected final StringBuilder builder;
     protected boolean closed;
 
     public FormatOutputStream(OutputStream output) {
         this.output = output;
+        this.builder = new StringBuilder(256);
         this.closed = false;
     }
 
@@ -136,6 +139,24 @@ public class FormatOutputStream extends OutputStream {
         }
     }
 
+    public final void writeVarInt(int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            writeByte((byte) ((v & 0x7F) | 0x80));
+            v = v >>> 7;
+        }
+        writeByte((byte) v);
+    }
+
+    public final void writeVarLong(long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0L) {
+            writeByte((byte) ((v & 0x7FL) | 0x80L));
+            v = v >>> 7;
+        }
+        writeByte((byte) v);
+    }
+
     public final void writeShort(short value) throws IOException {
         int v = value;
         writeByte((byte) (v >> 8));
@@ -214,232 +235,118 @@ public class FormatOutputStream extends OutputStream {
 
     public final void writeString(String value, String param1) throws IOException {
         Validator.notNull("value", value);
-        if (param1 == null) {
-            param1 = "null";
-        }
 
-        int idx = xxxxx;
-        int l = 0;
-        int ci = value.length();
-        writeLength(0);
-        for (int i = 0, j = 1; i < ci; ++i) {
-            char c = value.charAt(i);
-            if (c != '{') {
-                writeChar(c);
-                l++;
-            } else if ((i + 1 < ci) && (value.charAt(i + 1) == '}')) {
-                String p = "{}";
-                if (j == 1) {
-                    p = param1;
-                    j++;
-                }
-                for (int k = 0, ck = p.length(); k < ck; ++k) {
-                    writeChar(p.charAt(k));
-                    l++;
-                }
-                i++;
-            } else {
-                writeChar(c);
-                l++;
-            }
-        }
-        writeLength(buffer, idx, l);
+        writeFormat(format(value, 1, 0, param1, 0L, null, 0L, null, 0L, null, 0L, null, 0L));
     }
 
     public final void writeString(String value, String param1, String param2) throws IOException {
         Validator.notNull("value", value);
-        if (param1 == null) {
-            param1 = "null";
-        }
-        if (param2 == null) {
-            param2 = "null";
-        }
 
-        int idx = xxxxx;
-        int l = 0;
-        int ci = value.length();
-        writeLength(0);
-        for (int i = 0, j = 1; i < ci; ++i) {
-            char c = value.charAt(i);
-            if (c != '{') {
-                writeChar(c);
-                l++;
-            } else if ((i + 1 < ci) && (value.charAt(i + 1) == '}')) {
-                String p = "{}";
-                if (j == 1) {
-                    p = param1;
-                    j++;
-                } else if (j == 2) {
-                    p = param2;
-                    j++;
-                }
-                for (int k = 0, ck = p.length(); k < ck; ++k) {
-                    writeChar(p.charAt(k));
-                    l++;
-                }
-                i++;
-            } else {
-                writeChar(c);
-                l++;
-            }
-        }
-        writeLength(buffer, idx, l);
+        writeFormat(format(value, 2, 0, param1, 0L, param2, 0L, null, 0L, null, 0L, null, 0L));
     }
 
     public final void writeString(String value, String param1, String param2, String param3) throws IOException {
         Validator.notNull("value", value);
-        if (param1 == null) {
-            param1 = "null";
-        }
-        if (param2 == null) {
-            param2 = "null";
-        }
-        if (param3 == null) {
-            param3 = "null";
-        }
 
-        int idx = xxxxx;
-        int l = 0;
-        int ci = value.length();
-        writeLength(0);
-        for (int i = 0, j = 1; i < ci; ++i) {
-            char c = value.charAt(i);
-            if (c != '{') {
-                writeChar(c);
-                l++;
-            } else if ((i + 1 < ci) && (value.charAt(i + 1) == '}')) {
-                String p = "{}";
-                if (j == 1) {
-                    p = param1;
-                    j++;
-                } else if (j == 2) {
-                    p = param2;
-                    j++;
-                } else if (j == 3) {
-                    p = param3;
-                    j++;
-                }
-                for (int k = 0, ck = p.length(); k < ck; ++k) {
-                    writeChar(p.charAt(k));
-                    l++;
-                }
-                i++;
-            } else {
-                writeChar(c);
-                l++;
-            }
-        }
-        writeLength(buffer, idx, l);
+        writeFormat(format(value, 3, 0, param1, 0L, param2, 0L, param3, 0L, null, 0L, null, 0L));
     }
 
     public final void writeString(String value, String param1, String param2, String param3, String param4) throws IOException {
         Validator.notNull("value", value);
-        if (param1 == null) {
-            param1 = "null";
-        }
-        if (param2 == null) {
-            param2 = "null";
-        }
-        if (param3 == null) {
-            param3 = "null";
-        }
-        if (param4 == null) {
-            param4 = "null";
-        }
 
-        int idx = xxxxx;
-        int l = 0;
-        int ci = value.length();
-        writeLength(0);
-        for (int i = 0, j = 1; i < ci; ++i) {
-            char c = value.charAt(i);
-            if (c != '{') {
-                writeChar(c);
-                l++;
-            } else if ((i + 1 < ci) && (value.charAt(i + 1) == '}')) {
-                String p = "{}";
-                if (j == 1) {
-                    p = param1;
-                    j++;
-                } else if (j == 2) {
-                    p = param2;
-                    j++;
-                } else if (j == 3) {
-                    p = param3;
-                    j++;
-                } else if (j == 4) {
-                    p = param4;
-                    j++;
-                }
-                for (int k = 0, ck = p.length(); k < ck; ++k) {
-                    writeChar(p.charAt(k));
-                    l++;
-                }
-                i++;
-            } else {
-                writeChar(c);
-                l++;
-            }
-        }
-        writeLength(buffer, idx, l);
+        writeFormat(format(value, 4, 0, param1, 0L, param2, 0L, param3, 0L, param4, 0L, null, 0L));
     }
 
     public final void writeString(String value, String param1, String param2, String param3, String param4, String param5) throws IOException {
         Validator.notNull("value", value);
-        if (param1 == null) {
-            param1 = "null";
-        }
-        if (param2 == null) {
-            param2 = "null";
-        }
-        if (param3 == null) {
-            param3 = "null";
-        }
-        if (param4 == null) {
-            param4 = "null";
-        }
-        if (param5 == null) {
-            param5 = "null";
-        }
 
-        int idx = xxxxx;
-        int l = 0;
-        int ci = value.length();
-        writeLength(0);
-        for (int i = 0, j = 1; i < ci; ++i) {
+        writeFormat(format(value, 5, 0, param1, 0L, param2, 0L, param3, 0L, param4, 0L, param5, 0L));
+    }
+
+    public final void writeString(String value, int kinds, Object param1, long value1) throws IOException {
+        Validator.notNull("value", value);
+
+        writeFormat(format(value, 1, kinds, param1, value1, null, 0L, null, 0L, null, 0L, null, 0L));
+    }
+
+    public final void writeString(String value, int kinds, Object param1, long value1, Object param2, long value2) throws IOException {
+        Validator.notNull("value", value);
+
+        writeFormat(format(value, 2, kinds, param1, value1, param2, value2, null, 0L, null, 0L, null, 0L));
+    }
+
+    public final void writeString(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) throws IOException {
+        Validator.notNull("value", value);
+
+        writeFormat(format(value, 3, kinds, param1, value1, param2, value2, param3, value3, null, 0L, null, 0L));
+    }
+
+    public final void writeString(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) throws IOException {
+        Validator.notNull("value", value);
+
+        writeFormat(format(value, 4, kinds, param1, value1, param2, value2, param3, value3, param4, value4, null, 0L));
+    }
+
+    public final void writeString(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) throws IOException {
+        Validator.notNull("value", value);
+
+        writeFormat(format(value, 5, kinds, param1, value1, param2, value2, param3, value3, param4, value4, param5, value5));
+    }
+
+    private StringBuilder format(String value, int count, int kinds,
+                                 Object param1, long value1, Object param2, long value2, Object param3, long value3,
+                                 Object param4, long value4, Object param5, long value5) {
+        StringBuilder b = builder;
+        b.setLength(0);
+        for (int i = 0, ci = value.length(), j = 1; i < ci; ++i) {
             char c = value.charAt(i);
-            if (c != '{') {
-                writeChar(c);
-                l++;
-            } else if ((i + 1 < ci) && (value.charAt(i + 1) == '}')) {
-                String p = "{}";
+            if ((c == '{') && (j <= count) && (i + 1 < ci) && (value.charAt(i + 1) == '}')) {
                 if (j == 1) {
-                    p = param1;
-                    j++;
+                    formatParam(b, Param.kind(kinds, 1), param1, value1);
                 } else if (j == 2) {
-                    p = param2;
-                    j++;
+                    formatParam(b, Param.kind(kinds, 2), param2, value2);
                 } else if (j == 3) {
-                    p = param3;
-                    j++;
+                    formatParam(b, Param.kind(kinds, 3), param3, value3);
                 } else if (j == 4) {
-                    p = param4;
-                    j++;
-                } else if (j == 5) {
-                    p = param5;
-                    j++;
-                }
-                for (int k = 0, ck = p.length(); k < ck; ++k) {
-                    writeChar(p.charAt(k));
-                    l++;
+                    formatParam(b, Param.kind(kinds, 4), param4, value4);
+                } else {
+                    formatParam(b, Param.kind(kinds, 5), param5, value5);
                 }
+                j++;
                 i++;
             } else {
-                writeChar(c);
-                l++;
+                b.append(c);
             }
         }
-        writeLength(buffer, idx, l);
+        return b;
+    }
+
+    private static void formatParam(StringBuilder builder, byte kind, Object param, long value) {
+        if (kind == Param.OBJECT.id) {
+            builder.append(param);
+        } else if (kind == Param.LONG.id) {
+            builder.append(value);
+        } else if (kind == Param.INT.id) {
+            builder.append((int) value);
+        } else if (kind == Param.DOUBLE.id) {
+            builder.append(Double.longBitsToDouble(value));
+        } else if (kind == Param.FLOAT.id) {
+            builder.append(Float.intBitsToFloat((int) value));
+        } else if (kind == Param.BOOLEAN.id) {
+            builder.append(value != 0L);
+        } else if (kind == Param.CHAR.id) {
+            builder.append((char) value);
+        } else {
+            throw new IllegalArgumentException(String.format("Param kind %d is not supported", kind));
+        }
+    }
+
+    private void writeFormat(StringBuilder value) throws IOException {
+        int ci = value.length();
+        writeLength(ci);
+        for (int i = 0; i < ci; ++i) {
+            writeChar(value.charAt(i));
+        }
     }
 
     public final void writePattern(Pattern value) throws IOException {
@@ -855,6 +762,51 @@ public class FormatOutputStream extends OutputStream {
         }
     }
 
+    public final void writeStringRef(String value, int kinds, Object param1, long value1) throws IOException {
+        if (value != null) {
+            writeByte((byte) 1);
+            writeString(value, kinds, param1, value1);
+        } else {
+            writeByte((byte) 0);
+        }
+    }
+
+    public final void writeStringRef(String value, int kinds, Object param1, long value1, Object param2, long value2) throws IOException {
+        if (value != null) {
+            writeByte((byte) 1);
+            writeString(value, kinds, param1, value1, param2, value2);
+        } else {
+            writeByte((byte) 0);
+        }
+    }
+
+    public final void writeStringRef(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3) throws IOException {
+        if (value != null) {
+            writeByte((byte) 1);
+            writeString(value, kinds, param1, value1, param2, value2, param3, value3);
+        } else {
+            writeByte((byte) 0);
+        }
+    }
+
+    public final void writeStringRef(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4) throws IOException {
+        if (value != null) {
+            writeByte((byte) 1);
+            writeString(value, kinds, param1, value1, param2, value2, param3, value3, param4, value4);
+        } else {
+            writeByte((byte) 0);
+        }
+    }
+
+    public final void writeStringRef(String value, int kinds, Object param1, long value1, Object param2, long value2, Object param3, long value3, Object param4, long value4, Object param5, long value5) throws IOException {
+        if (value != null) {
+            writeByte((byte) 1);
+            writeString(value, kinds, param1, value1, param2, value2, param3, value3, param4, value4, param5, value5);
+        } else {
+            writeByte((byte) 0);
+        }
+    }
+
     public final void writePatternRef(Pattern value) throws IOException {
         if (value != null) {
             writeByte((byte) 1);
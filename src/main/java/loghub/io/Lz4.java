@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package loghub.io;
+
+import loghub.config.Validator;
+
+import java.util.Arrays;
+
+/**
+ * LZ4 block format compressor. A block is a sequence of
+ * {@code token literals offset match} entries where the token holds the literal and match lengths,
+ * the offset is a little-endian short and the last entry carries literals only.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public final class Lz4 {
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+
+    private final int[] table;
+
+    public Lz4() {
+        this.table = new int[1 << HASH_LOG];
+    }
+
+    public static int maxCompressedLength(int length) {
+        Validator.inRangeInt("length", length, 0, Integer.MAX_VALUE - (Integer.MAX_VALUE / 255) - 16);
+
+        return length + (length / 255) + 16;
+    }
+
+    public int compress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset) {
+        Validator.notNull("source", source);
+        Validator.inRangeInt("sourceOffset", sourceOffset, 0, source.length);
+        Validator.inRangeInt("sourceLength", sourceLength, 0, source.length - sourceOffset);
+        Validator.notNull("target", target);
+        Validator.inRangeInt("targetOffset", targetOffset, 0, target.length - maxCompressedLength(sourceLength));
+
+        byte[] s = source;
+        byte[] d = target;
+        int se = sourceOffset + sourceLength;
+        int dp = targetOffset;
+        int a = sourceOffset;
+        if (sourceLength > MATCH_LIMIT) {
+            int[] t = table;
+            Arrays.fill(t, -1);
+            int l = se - MATCH_LIMIT;
+            int me = se - LAST_LITERALS;
+            int p = sourceOffset;
+            while (p < l) {
+                int v = readInt(s, p);
+                int h = hash(v);
+                int r = t[h];
+                t[h] = p;
+                if ((r < 0) || (p - r > MAX_DISTANCE) || (readInt(s, r) != v)) {
+                    p += 1 + ((p - a) >>> 6);
+                    continue;
+                }
+                while ((p > a) && (r > sourceOffset) && (s[p - 1] == s[r - 1])) {
+                    p--;
+                    r--;
+                }
+                int ml = MIN_MATCH;
+                while ((p + ml < me) && (s[p + ml] == s[r + ml])) {
+                    ml++;
+                }
+                dp = writeSequence(s, a, p - a, d, dp, p - r, ml);
+                p += ml;
+                a = p;
+                if (p - 2 < l) {
+                    t[hash(readInt(s, p - 2))] = p - 2;
+                }
+            }
+        }
+        int ll = se - a;
+        int k = dp++;
+        d[k] = (byte) (Math.min(ll, 15) << 4);
+        dp = writeLength(d, dp, ll);
+        System.arraycopy(s, a, d, dp, ll);
+        return dp + ll - targetOffset;
+    }
+
+    public static int decompress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) throws FormatInputException {
+        Validator.notNull("source", source);
+        Validator.inRangeInt("sourceOffset", sourceOffset, 0, source.length);
+        Validator.inRangeInt("sourceLength", sourceLength, 0, source.length - sourceOffset);
+        Validator.notNull("target", target);
+        Validator.inRangeInt("targetOffset", targetOffset, 0, target.length);
+        Validator.inRangeInt("targetLength", targetLength, 0, target.length - targetOffset);
+
+        byte[] s = source;
+        byte[] d = target;
+        int sp = sourceOffset;
+        int se = sourceOffset + sourceLength;
+        int dp = targetOffset;
+        int de = targetOffset + targetLength;
+        while (sp < se) {
+            int t = s[sp++] & 0xFF;
+            int ll = t >>> 4;
+            if (ll == 15) {
+                int b;
+                do {
+                    if (sp >= se) {
+                        throw new FormatInputException(String.format("Illegal LZ4 block at %d: literal length is truncated", sp - sourceOffset));
+                    }
+                    b = s[sp++] & 0xFF;
+                    ll += b;
+                } while (b == 255);
+            }
+            if ((ll > se - sp) || (ll > de - dp)) {
+                throw new FormatInputException(String.format("Illegal LZ4 block at %d: literal length %d is out of bounds", sp - sourceOffset, ll));
+            }
+            System.arraycopy(s, sp, d, dp, ll);
+            sp += ll;
+            dp += ll;
+            if (sp >= se) {
+                break;
+            }
+            if (sp + 2 > se) {
+                throw new FormatInputException(String.format("Illegal LZ4 block at %d: offset is truncated", sp - sourceOffset));
+            }
+            int o = (s[sp] & 0xFF) | ((s[sp + 1] & 0xFF) << 8);
+            sp += 2;
+            if ((o == 0) || (o > dp - targetOffset)) {
+                throw new FormatInputException(String.format("Illegal LZ4 block at %d: offset %d is out of bounds", sp - sourceOffset, o));
+            }
+            int ml = t & 15;
+            if (ml == 15) {
+                int b;
+                do {
+                    if (sp >= se) {
+                        throw new FormatInputException(String.format("Illegal LZ4 block at %d: match length is truncated", sp - sourceOffset));
+                    }
+                    b = s[sp++] & 0xFF;
+                    ml += b;
+                } while (b == 255);
+            }
+            ml += MIN_MATCH;
+            if (ml > de - dp) {
+                throw new FormatInputException(String.format("Illegal LZ4 block at %d: match length %d is out of bounds", sp - sourceOffset, ml));
+            }
+            for (int i = dp - o, ci = i + ml; i < ci; ++i) {
+                d[dp++] = d[i];
+            }
+        }
+        return dp - targetOffset;
+    }
+
+    private static int writeSequence(byte[] source, int literalOffset, int literalLength, byte[] target, int position, int offset, int matchLength) {
+        int dp = position;
+        int k = dp++;
+        int m = matchLength - MIN_MATCH;
+        target[k] = (byte) ((Math.min(literalLength, 15) << 4) | Math.min(m, 15));
+        dp = writeLength(target, dp, literalLength);
+        System.arraycopy(source, literalOffset, target, dp, literalLength);
+        dp += literalLength;
+        target[dp++] = (byte) offset;
+        target[dp++] = (byte) (offset >>> 8);
+        return writeLength(target, dp, m);
+    }
+
+    private static int writeLength(byte[] target, int position, int length) {
+        int dp = position;
+        if (length >= 15) {
+            int r = length - 15;
+            while (r >= 255) {
+                target[dp++] = (byte) 255;
+                r -= 255;
+            }
+            target[dp++] = (byte) r;
+        }
+        return dp;
+    }
+
+    private static int readInt(byte[] array, int index) {
+        return (array[index] & 0xFF) |
+               ((array[index + 1] & 0xFF) << 8) |
+               ((array[index + 2] & 0xFF) << 16) |
+               ((array[index + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int value) {
+        return (value * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
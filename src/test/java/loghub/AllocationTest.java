@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import loghub.buffer.ArrayByteBuffer;
+import loghub.buffer.ByteBuffer;
+import loghub.buffer.DirectByteBuffer;
+import loghub.buffer.EventBuffer;
+import loghub.buffer.Reservation;
+import loghub.buffer.StripedByteBuffer;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when a steady-state logging path starts allocating. Every path is warmed up first and then measured
+ * over {@link #COUNT} iterations, the allocated bytes must not exceed {@link #MAX_ALLOCATED} in total.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public class AllocationTest {
+    private static final int COUNT = 100000;
+    private static final int WARMUP = 3;
+    private static final long MAX_ALLOCATED = 1024L;
+    private static final String LOGGER = "com.acme.Service";
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    public static void setUp() {
+        java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(t instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean st = (com.sun.management.ThreadMXBean) t;
+        Assumptions.assumeTrue(st.isThreadAllocatedMemorySupported());
+        st.setThreadAllocatedMemoryEnabled(true);
+        threads = st;
+    }
+
+    @Test
+    public void testFacadeLog() {
+        LogHub h = new LogHub(LOGGER);
+        ArrayByteBuffer b = BufferConnectorFactory.BUFFER;
+        EventBuffer eb = BufferConnectorFactory.EVENTS;
+        long c = eb.getTotalCount();
+        assertAllocationFree("Facade.log", i -> {
+            if ((i & 0x3FFF) == 0) {
+                b.reset();
+            }
+            if (h.isEnabled(Level.INFO)) {
+                Facade.log(i, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, LOGGER, Type.DEFAULT, null, null, null, "value {}", "ok");
+            }
+        });
+        assertEquals(c + (WARMUP + 1L) * COUNT, eb.getTotalCount());
+        assertEquals(0L, eb.getLostCount());
+    }
+
+    @Test
+    public void testFilterMatch() {
+        InputEventFilter f = InputEventFilter.parse("level <= INFO && logger == com.acme.* && message ~= 'x+'");
+        assertAllocationFree("InputEventFilter.match", i -> {
+            assertTrue(f.match(i, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, LOGGER, Type.DEFAULT, null, null, null, "xx"));
+        });
+    }
+
+    @Test
+    public void testEventBufferLog() {
+        ArrayByteBuffer b = new ArrayByteBuffer(64 * 1024 * 1024);
+        EventBuffer eb = new EventBuffer(b, 256);
+        int kinds = Param.kinds(Param.LONG, Param.DOUBLE);
+        assertAllocationFree("EventBuffer.log", i -> {
+            if ((i & 0x3FFF) == 0) {
+                b.reset();
+            }
+            eb.log(i, i, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, LOGGER, Type.DEFAULT, null, null, null, "value {}", "ok");
+            eb.logPrimitive(i, i, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, LOGGER, Type.DEFAULT, null, null, null, "a={} b={}", kinds, null, i, null, Param.value(1.5));
+        });
+        assertEquals(0L, eb.getLostCount());
+    }
+
+    @Test
+    public void testArrayByteBufferAppend() {
+        assertAppendAllocationFree("ArrayByteBuffer.append", new ArrayByteBuffer(16 * 1024 * 1024));
+    }
+
+    @Test
+    public void testStripedByteBufferAppend() {
+        assertAppendAllocationFree("StripedByteBuffer.append", new StripedByteBuffer(16 * 1024 * 1024));
+    }
+
+    @Test
+    public void testDirectByteBufferAppend() {
+        assertAppendAllocationFree("DirectByteBuffer.append", new DirectByteBuffer(16 * 1024 * 1024));
+    }
+
+    @Test
+    public void testReservationCommit() {
+        ArrayByteBuffer b = new ArrayByteBuffer(16 * 1024 * 1024);
+        Reservation r = new Reservation(256);
+        byte[] a = new byte[100];
+        assertAllocationFree("ArrayByteBuffer.commit", i -> {
+            if ((i & 0x3FFF) == 0) {
+                b.reset();
+            }
+            b.reserve(r, 128);
+            try {
+                r.getOutput().write(a, 0, a.length);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(b.commit(r, Level.INFO));
+        });
+    }
+
+    private static void assertAppendAllocationFree(String name, ByteBuffer buffer) {
+        byte[] a = new byte[100];
+        assertAllocationFree(name, i -> {
+            if ((i & 0x3FFF) == 0) {
+                buffer.reset();
+            }
+            assertTrue(buffer.append(a, 0, a.length, Level.INFO));
+        });
+    }
+
+    private static void assertAllocationFree(String name, Action action) {
+        long tid = Thread.currentThread().getId();
+        for (int w = 0; w < WARMUP; ++w) {
+            for (int i = 0; i < COUNT; ++i) {
+                action.run(i);
+            }
+        }
+        long b = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < COUNT; ++i) {
+            action.run(i);
+        }
+        long a = threads.getThreadAllocatedBytes(tid) - b;
+        assertTrue(a <= MAX_ALLOCATED, String.format("%s allocates %d bytes per %d calls", name, a, COUNT));
+    }
+
+    private interface Action {
+        public void run(int index);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub;
+
+import loghub.buffer.ArrayByteBuffer;
+import loghub.buffer.EventBuffer;
+import loghub.connector.Connector;
+import loghub.connector.ConnectorFactory;
+
+/**
+ * Installs an {@link EventBuffer} over an {@link ArrayByteBuffer} as a {@link Facade} connector, so tests can
+ * exercise the whole logging path.
+ *
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public class BufferConnectorFactory implements ConnectorFactory {
+    public static final ArrayByteBuffer BUFFER = new ArrayByteBuffer(64 * 1024 * 1024);
+    public static final EventBuffer EVENTS = new EventBuffer(BUFFER, 256);
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Connector createConnector() {
+        return EVENTS;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.Codec;
+import loghub.Level;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public class CompressedByteBufferTest {
+    @Test
+    public void testFailedSendIsRetried() throws IOException {
+        ArrayByteBuffer b = new ArrayByteBuffer(64 * 1024);
+        CompressedByteBuffer c = new CompressedByteBuffer(b, Codec.NONE, 64, null);
+        byte[] r = new byte[40];
+        for (int i = 0; i < 4; ++i) {
+            r[0] = (byte) i;
+            assertTrue(c.append(r, 0, r.length));
+        }
+
+        assertFalse(c.send(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("write");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("write");
+            }
+        }));
+        ByteArrayOutputStream o = new ByteArrayOutputStream();
+        assertTrue(c.send(o));
+
+        ByteArrayOutputStream e = new ByteArrayOutputStream();
+        for (int i = 0; i < 4; ++i) {
+            r[0] = (byte) i;
+            e.write(ByteBuffer.RECORD_COMMITTED);
+            e.write(new byte[] {0, 0, 0, (byte) r.length});
+            e.write(r);
+        }
+
+        FormatInputStream in = new FormatInputStream(new ByteArrayInputStream(o.toByteArray()));
+        ArrayOutputStream a = new ArrayOutputStream(256, Integer.MAX_VALUE);
+        int n = 0;
+        while (in.available() > 0) {
+            n += CompressedByteBuffer.readBlock(in, null, a);
+        }
+        assertEquals(4 * (ByteBuffer.RECORD_HEADER + r.length), n);
+        assertArrayEquals(e.toByteArray(), a.createArraySizedCopy());
+    }
+
+    @Test
+    public void testReservationIsForwarded() throws IOException {
+        ArrayByteBuffer b = new ArrayByteBuffer(64 * 1024);
+        CompressedByteBuffer c = new CompressedByteBuffer(b, Codec.NONE, 64, null);
+        Reservation r = new Reservation(256);
+        c.reserve(r, 128);
+        assertFalse(r.isDetached());
+        r.getOutput().write(new byte[40], 0, 40);
+        assertTrue(c.commit(r, Level.INFO));
+        assertTrue(r.isDetached());
+
+        ByteArrayOutputStream o = new ByteArrayOutputStream();
+        assertTrue(b.send(o));
+        assertEquals(ByteBuffer.RECORD_HEADER + 40, o.size());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.Input;
+import loghub.Level;
+import loghub.Type;
+import loghub.event.EventInfo;
+import loghub.io.FormatInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public class EventBufferTest {
+    @Test
+    public void testFailingParameterIsLost() throws IOException {
+        ArrayByteBuffer b = new ArrayByteBuffer(1024 * 1024);
+        EventBuffer eb = new EventBuffer(b, 256);
+        Object p = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString");
+            }
+        };
+        eb.log(1L, 1L, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, "com.acme.Service", Type.DEFAULT, null, null, null, "value {}", p);
+        eb.log(2L, 2L, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, "com.acme.Service", Type.DEFAULT, null, null, null, "value {}", "ok");
+        assertEquals(1L, eb.getLostCount());
+
+        byte[] a = send(eb);
+        assertEquals(ByteBuffer.RECORD_COMMITTED, a[0]);
+        assertEquals(EventBuffer.RECORD_EVENT, a[ByteBuffer.RECORD_HEADER]);
+        EventInfo i = readInfo(a);
+        assertEquals(1L, i.totalCount);
+        assertEquals(1L, i.lostCount);
+    }
+
+    @Test
+    public void testSuppressedTotalsAreSent() throws IOException {
+        ArrayByteBuffer b = new ArrayByteBuffer(1024 * 1024);
+        EventBuffer eb = new EventBuffer(b, 256);
+        eb.suppress(10L, 1000L);
+        EventInfo i = readInfo(send(eb));
+        assertEquals(0L, i.number);
+        assertEquals(10L, i.lostCount);
+        assertEquals(1000L, i.lostSize);
+
+        eb.log(1L, 1L, Input.FACADE, "Service", "run", null, "Service.java", 42, Level.INFO, "com.acme.Service", Type.DEFAULT, null, null, null, "value {}", "ok");
+        i = readInfo(send(eb));
+        assertEquals(1L, i.number);
+        assertEquals(1L, i.totalCount);
+        assertEquals(0L, i.sentCount);
+        assertEquals(10L, i.lostCount);
+        assertEquals(1L, eb.getSentCount());
+        assertEquals(0, send(eb).length);
+    }
+
+    private static byte[] send(EventBuffer buffer) {
+        ByteArrayOutputStream o = new ByteArrayOutputStream();
+        assertTrue(buffer.send(o));
+        return o.toByteArray();
+    }
+
+    private static EventInfo readInfo(byte[] array) throws IOException {
+        EventInfo i = null;
+        for (int p = 0; p < array.length; ) {
+            int l = ((array[p + 1] & 0xFF) << 24) | ((array[p + 2] & 0xFF) << 16) | ((array[p + 3] & 0xFF) << 8) | (array[p + 4] & 0xFF);
+            if (array[p + ByteBuffer.RECORD_HEADER] == EventBuffer.RECORD_INFO) {
+                i = new EventInfo(new FormatInputStream(new ByteArrayInputStream(array, p + ByteBuffer.RECORD_HEADER + 1, l - 1)));
+            }
+            p += ByteBuffer.RECORD_HEADER + l;
+        }
+        assertNotNull(i);
+        return i;
+    }
+}
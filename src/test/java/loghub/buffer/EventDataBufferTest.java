@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2020 Microservice Systems, Inc.
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package loghub.buffer;
+
+import loghub.Input;
+import loghub.Level;
+import loghub.Type;
+import loghub.connector.EventBatch;
+import loghub.io.ArrayOutputStream;
+import loghub.io.FormatInputStream;
+import loghub.io.FormatOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Dmitry Kotlyarov
+ * @since 1.0
+ */
+public class EventDataBufferTest {
+    @Test
+    public void testRoundTrip() throws IOException {
+        EventBatch b = createBatch(10);
+        EventDataBuffer d = new EventDataBuffer(16);
+        assertEquals(10, d.addAll(b));
+
+        EventDataBuffer r = read(write(d), 16);
+        assertEquals(10, r.getSize());
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(b.times[i], r.getTime(i));
+            assertEquals(b.numbers[i], r.getNumber(i));
+            assertEquals(b.classes[i], r.getClazz(i));
+            assertEquals(b.lines[i], r.getLine(i));
+            assertEquals(b.loggers[i], r.getLogger(i));
+            assertEquals("value " + i, r.getMessage(i));
+        }
+        assertEquals(IllegalStateException.class.getName(), r.getExceptionClass(3));
+        assertEquals("failure", r.getExceptionMessage(3));
+        assertNull(r.getExceptionClass(4));
+    }
+
+    @Test
+    public void testAddAfterRead() throws IOException {
+        EventBatch b = createBatch(11);
+        EventDataBuffer d = new EventDataBuffer(16);
+        d.addAll(b);
+
+        EventDataBuffer r = read(write(createBuffer(createBatch(10))), 16);
+        r.add(b, 10);
+        assertArrayEquals(write(d), write(r));
+    }
+
+    @Test
+    public void testLogBatch() throws IOException {
+        ArrayByteBuffer bb = new ArrayByteBuffer(1024 * 1024);
+        EventBuffer eb = new EventBuffer(bb, null, null, 256, 4);
+        eb.logBatch(createBatch(10));
+        assertEquals(0L, eb.getLostCount());
+
+        ByteArrayOutputStream o = new ByteArrayOutputStream();
+        eb.send(o);
+        byte[] a = o.toByteArray();
+        int n = 0;
+        for (int p = 0; p < a.length; ) {
+            int l = ((a[p + 1] & 0xFF) << 24) | ((a[p + 2] & 0xFF) << 16) | ((a[p + 3] & 0xFF) << 8) | (a[p + 4] & 0xFF);
+            if (a[p + ByteBuffer.RECORD_HEADER] != EventBuffer.RECORD_INFO) {
+                assertEquals(EventBuffer.RECORD_DATA, a[p + ByteBuffer.RECORD_HEADER]);
+                n += read(Arrays.copyOfRange(a, p + ByteBuffer.RECORD_HEADER + 1, p + ByteBuffer.RECORD_HEADER + l), 4).getSize();
+            }
+            p += ByteBuffer.RECORD_HEADER + l;
+        }
+        assertEquals(10, n);
+    }
+
+    private static EventBatch createBatch(int size) {
+        EventBatch b = new EventBatch(16);
+        for (int i = 0; i < size; ++i) {
+            b.add(1000L + i * 10L, i, Input.FACADE,
+                    "Service" + (i % 2), "run", null, "Service.java", 10 + (i % 2),
+                    Level.INFO, "com.acme.Service" + (i % 3), Type.DEFAULT, (i == 3) ? new IllegalStateException("failure") : null, null, null,
+                    "value {}", 1, 0, i, 0L, null, 0L, null, 0L, null, 0L, null, 0L);
+        }
+        return b;
+    }
+
+    private static EventDataBuffer createBuffer(EventBatch batch) {
+        EventDataBuffer d = new EventDataBuffer(16);
+        d.addAll(batch);
+        return d;
+    }
+
+    private static byte[] write(EventDataBuffer buffer) throws IOException {
+        ArrayOutputStream a = new ArrayOutputStream(256, Integer.MAX_VALUE);
+        buffer.write(new FormatOutputStream(a));
+        return a.createArraySizedCopy();
+    }
+
+    private static EventDataBuffer read(byte[] array, int capacity) throws IOException {
+        EventDataBuffer d = new EventDataBuffer(capacity);
+        d.read(new FormatInputStream(new ByteArrayInputStream(array)));
+        return d;
+    }
+}